@@ -0,0 +1,71 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.tools.DateTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats the dates of an invoice cell building the formatters on every call (what {@link DateTools} used to
+ * do) and with the cached formatters of {@link DateTools}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateFormatBenchmark {
+
+    private static final Locale LOCALE = new Locale("es", "PY");
+    private static final String PATTERN = "dd/MM/yyyy";
+    private static final String WORDS_PATTERN = "{0} de {1} de {2}";
+
+    private final DateTools dateTools = new DateTools(LOCALE);
+    private final LocalDate localDate = LocalDate.of(2022, 5, 1);
+    private final Date date = new Date(1651406400000L);
+
+    @Benchmark
+    public String localDatePerCall() {
+        return localDate.format(DateTimeFormatter.ofPattern(PATTERN));
+    }
+
+    @Benchmark
+    public String localDateCached() {
+        return dateTools.format(localDate, PATTERN);
+    }
+
+    @Benchmark
+    public String datePerCall() {
+        return new SimpleDateFormat(PATTERN, LOCALE).format(date);
+    }
+
+    @Benchmark
+    public String dateCached() {
+        return dateTools.format(date, PATTERN);
+    }
+
+    @Benchmark
+    public String wordsPerCall() {
+        Month month = localDate.getMonth();
+        String monthName = month.getDisplayName(TextStyle.FULL, LOCALE);
+        monthName = monthName.substring(0, 1).toUpperCase() + monthName.substring(1);
+        return MessageFormat.format(WORDS_PATTERN, Integer.toString(localDate.getDayOfMonth()), monthName,
+                Integer.toString(localDate.getYear()));
+    }
+
+    @Benchmark
+    public String wordsCached() {
+        return dateTools.formatAsWords(localDate, WORDS_PATTERN);
+    }
+}
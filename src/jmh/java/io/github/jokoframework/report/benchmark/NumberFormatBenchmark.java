@@ -0,0 +1,65 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.tools.NumberTools;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a value the way an invoice cell does, with a {@link DecimalFormat} built on every call (what
+ * {@link NumberTools} used to do) and with the cached formatters of {@link NumberTools}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumberFormatBenchmark {
+
+    private static final Locale LOCALE = new Locale("es", "PY");
+
+    @Param({"#,##0", "#,##0.00"})
+    private String pattern;
+
+    @Param({"long", "bigDecimal", "double"})
+    private String type;
+
+    private NumberTools numberTools;
+    private Object value;
+
+    @Setup
+    public void setUp() {
+        numberTools = new NumberTools(LOCALE);
+        switch (type) {
+            case "long":
+                value = 12_345_678L;
+                break;
+            case "bigDecimal":
+                value = new BigDecimal("12345678.45");
+                break;
+            default:
+                value = 12_345_678.45d;
+        }
+    }
+
+    @Benchmark
+    public String decimalFormatPerCall() {
+        DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(LOCALE);
+        decimalFormat.applyPattern(pattern);
+        return decimalFormat.format(value);
+    }
+
+    @Benchmark
+    public String numberTools() {
+        return numberTools.format(pattern, value);
+    }
+}
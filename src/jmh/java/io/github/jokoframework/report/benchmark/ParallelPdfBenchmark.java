@@ -0,0 +1,58 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.pdf.PdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a statement with one page per account to pdf in a single pass and laying out the pages in parallel, to
+ * compare the scaling with the available processors
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelPdfBenchmark {
+
+    @Param({"4", "32"})
+    private int pages;
+
+    private String html;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("<html><head><style>td { border: 1px solid #ccc; }</style></head><body>");
+        for (int page = 1; page <= pages; page++) {
+            builder.append("<div style=\"page-break-after: always\"><h1>Cuenta ").append(page).append("</h1><table>");
+            for (int i = 1; i <= 30; i++) {
+                builder.append("<tr><td>").append(i).append("</td><td>Movimiento ").append(i)
+                        .append("</td><td>1.500</td></tr>");
+            }
+            builder.append("</table></div>");
+        }
+        html = builder.append("</body></html>").toString();
+    }
+
+    @Benchmark
+    public int single() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PdfRenderer.getInstance().render(html, output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int parallel() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PdfRenderer.getInstance().renderInParallel(html, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.pdf.PdfRenderMode;
+import io.github.jokoframework.report.pdf.PdfRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a plain invoice, without scripts, to pdf through the HtmlUnit browser emulation and directly
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PdfRenderBenchmark {
+
+    @Param({"JAVASCRIPT", "DIRECT"})
+    private PdfRenderMode mode;
+
+    @Param({"10", "200"})
+    private int lines;
+
+    private String html;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("<html><head><style>td { border: 1px solid #ccc; }</style></head><body>"
+                + "<h1>Factura 001-001-0000123</h1><table>");
+        for (int i = 1; i <= lines; i++) {
+            builder.append("<tr><td>").append(i).append("</td><td>Producto ").append(i)
+                    .append("</td><td>1.500</td></tr>");
+        }
+        html = builder.append("</table></body></html>").toString();
+    }
+
+    @Benchmark
+    public int render() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PdfRenderer.getInstance().render(html, null, mode, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.engine.ReportUberspect;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import org.apache.velocity.util.introspection.UberspectImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a #foreach over beans with nested properties using velocity's stock uberspector and the
+ * {@link ReportUberspect}, whose property accessors skip reflection
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PropertyAccessBenchmark {
+
+    private static final String TEMPLATE = "benchmark/beans.vm";
+
+    @Param({"1000"})
+    private int customers;
+
+    private Template stockTemplate;
+    private Template reportTemplate;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        stockTemplate = newEngine(UberspectImpl.class).getTemplate(TEMPLATE);
+        reportTemplate = newEngine(ReportUberspect.class).getTemplate(TEMPLATE);
+        List<Customer> rows = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            rows.add(new Customer("Cliente " + i, String.valueOf(1000000 + i), new Address("Asunción", "Calle " + i), i % 2 == 0,
+                    Collections.singletonMap("segment", i % 3 == 0 ? "A" : "B")));
+        }
+        params = new HashMap<>();
+        params.put("customers", rows);
+    }
+
+    @Benchmark
+    public String stockUberspect() {
+        return render(stockTemplate);
+    }
+
+    @Benchmark
+    public String reportUberspect() {
+        return render(reportTemplate);
+    }
+
+    private String render(Template template) {
+        VelocityContext context = new VelocityContext();
+        context.put("Params", params);
+        StringWriter writer = new StringWriter(customers * 64);
+        template.merge(context, writer);
+        return writer.toString();
+    }
+
+    private static VelocityEngine newEngine(Class<?> uberspect) {
+        VelocityEngine engine = new VelocityEngine();
+        engine.setProperty(RuntimeConstants.RESOURCE_LOADERS, "classpath");
+        engine.setProperty("resource.loader.classpath." + RuntimeConstants.RESOURCE_LOADER_CLASS, ClasspathResourceLoader.class.getName());
+        engine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, uberspect.getName());
+        engine.init();
+        return engine;
+    }
+
+    public static class Customer {
+        private final String name;
+        private final String document;
+        private final Address address;
+        private final boolean active;
+        private final Map<String, String> attributes;
+
+        public Customer(String name, String document, Address address, boolean active, Map<String, String> attributes) {
+            this.name = name;
+            this.document = document;
+            this.address = address;
+            this.active = active;
+            this.attributes = attributes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDocument() {
+            return document;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+    }
+
+    public static class Address {
+        private final String city;
+        private final String street;
+
+        public Address(String city, String street) {
+            this.city = city;
+            this.street = street;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getStreet() {
+            return street;
+        }
+    }
+}
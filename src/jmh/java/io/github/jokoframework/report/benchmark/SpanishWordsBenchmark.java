@@ -0,0 +1,42 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.tools.NumbersToSpanishWords;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the total of an invoice to words from each of the inputs {@link NumbersToSpanishWords} accepts. The
+ * String input is what {@link io.github.jokoframework.report.tools.NumberTools#toSpanish(Object)} used for every
+ * type before the long and BigDecimal overloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpanishWordsBenchmark {
+
+    private final String text = "1234567.89";
+    private final BigDecimal amount = new BigDecimal(text);
+    private final long integral = 1_234_567L;
+
+    @Benchmark
+    public String string() {
+        return NumbersToSpanishWords.numberToWords(text);
+    }
+
+    @Benchmark
+    public String bigDecimal() {
+        return NumbersToSpanishWords.numberToWords(amount);
+    }
+
+    @Benchmark
+    public String primitiveLong() {
+        return NumbersToSpanishWords.numberToWords(integral);
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.jokoframework.report.benchmark;
+
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.engine.ReportEngineSettings;
+import io.github.jokoframework.report.engine.compiler.TemplateClassCache;
+import io.github.jokoframework.report.engine.compiler.TemplateSources;
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to the first report of a freshly configured engine, parsing and interpreting the template (cold) or
+ * loading its class from a {@link TemplateClassCache} directory filled by a previous run (warm).
+ * Every invocation starts a new engine, so the velocity initialization is part of both measurements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TemplateColdStartBenchmark {
+
+    private static final String TEMPLATE = "benchmark/cold-start.vm";
+    private static final int SECTIONS = 40;
+
+    @Param({"cold", "warm"})
+    private String classCache;
+
+    private Path cacheDir;
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("joko-report-classes");
+        if ("warm".equals(classCache)) {
+            Template parsed = ReportEngine.configure(new ReportEngineSettings()).getParsedTemplate(TEMPLATE);
+            new TemplateClassCache(cacheDir).store(parsed, TemplateSources.hash(TemplateSources.read(TEMPLATE)));
+        }
+        params = params();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String firstReport() {
+        ReportEngineSettings settings = new ReportEngineSettings();
+        if ("warm".equals(classCache)) {
+            settings.setTemplateClassCacheDir(cacheDir.toString());
+        }
+        ReportEngine engine = ReportEngine.configure(settings);
+        Template template = engine.getTemplate(TEMPLATE);
+        Context context = engine.createContext();
+        context.put("Params", params);
+        StringWriter writer = new StringWriter();
+        engine.merge(template, context, writer);
+        return writer.toString();
+    }
+
+    private static Map<String, Object> params() {
+        Map<String, Object> address = new HashMap<>();
+        address.put("street", "Mcal. López 1234");
+        address.put("city", "Asunción");
+        Map<String, Object> customer = new HashMap<>();
+        customer.put("name", "Cliente de prueba");
+        customer.put("ruc", "80012345-6");
+        customer.put("address", address);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", "001-001-0000123");
+        params.put("customer", customer);
+        params.put("total", new BigDecimal("1250000"));
+        params.put("paid", true);
+        for (int section = 1; section <= SECTIONS; section += 2) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("description", "Producto " + section + "-" + i);
+                item.put("quantity", i + 1);
+                item.put("price", new BigDecimal("12500"));
+                item.put("total", new BigDecimal(12500 * (i + 1)));
+                items.add(item);
+            }
+            params.put("section" + section, items);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.jokoframework.report;
+
+import io.github.jokoframework.report.engine.CopyRenderer;
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.exception.ErrorMessages;
+import io.github.jokoframework.report.exception.JokoReportException;
+import io.github.jokoframework.report.printer.ESCPrinter;
+import io.github.jokoframework.report.tools.ReportTools;
+import org.apache.velocity.Template;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable report built once from a template and rendered as many times as needed.
+ * <p>
+ * Unlike {@link JokoReporter}, a compiled report holds no state of a particular rendering: every call to
+ * {@link #render(Object, Writer)} creates its own {@link RenderContext} (velocity context, {@link ReportTools}
+ * and {@link ESCPrinter}), so the same instance can be used by many threads at once.
+ */
+public final class CompiledReport {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String templatePath;
+    private final Template template;
+    private final boolean esc24pin;
+    private final Locale locale;
+    private final String decimalPattern;
+
+    private CompiledReport(String templatePath, Template template, boolean esc24pin, Locale locale, String decimalPattern) {
+        this.templatePath = templatePath;
+        this.template = template;
+        this.esc24pin = esc24pin;
+        this.locale = locale;
+        this.decimalPattern = decimalPattern;
+    }
+
+    /**
+     * Compiles the template using the shared {@link ReportEngine}
+     *
+     * @param templatePath classpath location of the .vm file
+     * @return
+     */
+    public static CompiledReport compile(String templatePath) {
+        return compile(templatePath, false);
+    }
+
+    public static CompiledReport compile(String templatePath, boolean esc24pin) {
+        Template template = ReportEngine.getInstance().getTemplate(templatePath);
+        return new CompiledReport(templatePath, template, esc24pin, null, null);
+    }
+
+    /**
+     * Returns a copy of this report whose $Tools use the given locale
+     *
+     * @param locale
+     * @return
+     */
+    public CompiledReport withLocale(Locale locale) {
+        return new CompiledReport(templatePath, template, esc24pin, locale, decimalPattern);
+    }
+
+    /**
+     * Returns a copy of this report whose $Tools.decimalFormat uses the given pattern
+     *
+     * @param decimalPattern
+     * @return
+     */
+    public CompiledReport withDecimalFormat(String decimalPattern) {
+        return new CompiledReport(templatePath, template, esc24pin, locale, decimalPattern);
+    }
+
+    /**
+     * Creates the state of a new rendering, useful to add values to the context before calling
+     * {@link #render(RenderContext, Writer)}
+     *
+     * @param params
+     * @return
+     */
+    public RenderContext newRenderContext(Object params) {
+        return new RenderContext(params, ReportTools.of(locale, decimalPattern), new ESCPrinter(esc24pin));
+    }
+
+    /**
+     * Renders the report with the given params into the writer. The writer is not closed.
+     *
+     * @param params
+     * @param writer
+     * @return the state of the rendering, which holds the ESC/P2 output
+     */
+    public RenderContext render(Object params, Writer writer) throws JokoReportException {
+        return render(newRenderContext(params), writer);
+    }
+
+    /**
+     * Renders the report with the given params into the output stream using UTF-8. The stream is flushed but not
+     * closed.
+     *
+     * @param params
+     * @param outputStream
+     * @return the state of the rendering, which holds the ESC/P2 output
+     */
+    public RenderContext render(Object params, OutputStream outputStream) throws JokoReportException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        return renderAndFlush(params, writer);
+    }
+
+    /**
+     * Renders the report with the given params into the channel using UTF-8, e.g. a {@link java.nio.channels.FileChannel}
+     * or a {@link java.nio.channels.Pipe.SinkChannel}. The channel is not closed.
+     *
+     * @param params
+     * @param channel
+     * @return the state of the rendering, which holds the ESC/P2 output
+     */
+    public RenderContext render(Object params, WritableByteChannel channel) throws JokoReportException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+        return renderAndFlush(params, writer);
+    }
+
+    private RenderContext renderAndFlush(Object params, Writer writer) throws JokoReportException {
+        RenderContext renderContext = render(newRenderContext(params), writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JokoReportException(e, ErrorMessages.REPORT_RENDER_ERROR, templatePath);
+        }
+        return renderContext;
+    }
+
+    public RenderContext render(RenderContext renderContext, Writer writer) throws JokoReportException {
+        try {
+            ReportEngine.getInstance().merge(template, renderContext.getContext(), writer);
+        } catch (RuntimeException e) {
+            throw new JokoReportException(e, ErrorMessages.REPORT_RENDER_ERROR, templatePath);
+        }
+        return renderContext;
+    }
+
+    /**
+     * Renders the given number of copies of the report, numbered from 1 in <strong>$copyNumber</strong>.
+     * Parts of the template that don't depend on the copy are evaluated only once, and the ESC/P2 commands of every
+     * copy are printed in sequence on the render context printer.
+     *
+     * @param renderContext
+     * @param copies
+     * @return the output of every copy
+     */
+    public List<String> renderCopies(RenderContext renderContext, int copies) throws JokoReportException {
+        try {
+            return CopyRenderer.render(template, renderContext.getContext(), renderContext.getEscPrinter(), copies);
+        } catch (IOException | RuntimeException e) {
+            throw new JokoReportException(e, ErrorMessages.REPORT_RENDER_ERROR, templatePath);
+        }
+    }
+
+    /**
+     * Renders the report with the given params and retrieves the output as String
+     *
+     * @param params
+     * @return
+     */
+    public String renderAsString(Object params) throws JokoReportException {
+        StringWriter writer = new StringWriter();
+        render(params, writer);
+        return writer.toString();
+    }
+
+    /**
+     * Renders the report with the given params and retrieves the ESC/P2 output as bytes
+     *
+     * @param params
+     * @return
+     */
+    public byte[] renderAsEscBytes(Object params) throws JokoReportException {
+        return render(params, new StringWriter()).getEscPrinter().getAsBytes();
+    }
+
+    public String getTemplatePath() {
+        return templatePath;
+    }
+
+    public boolean isEsc24pin() {
+        return esc24pin;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String getDecimalPattern() {
+        return decimalPattern;
+    }
+}
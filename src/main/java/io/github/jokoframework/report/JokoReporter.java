@@ -1,33 +1,23 @@
 package io.github.jokoframework.report;
 
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.WebRequest;
-import com.gargoylesoftware.htmlunit.html.HtmlPage;
-import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.github.jokoframework.report.engine.CopyRenderer;
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.exception.ErrorMessages;
 import io.github.jokoframework.report.exception.JokoReportException;
-import io.github.jokoframework.report.exception.WebClientErrorListener;
+import io.github.jokoframework.report.pdf.PdfRenderMode;
+import io.github.jokoframework.report.pdf.PdfRenderer;
+import io.github.jokoframework.report.pdf.SpillingOutputStream;
 import io.github.jokoframework.report.printer.ESCPrinter;
 import io.github.jokoframework.report.tools.ReportTools;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.velocity.Template;
-import org.apache.velocity.app.VelocityEngine;
-import org.apache.velocity.app.event.implement.IncludeRelativePath;
 import org.apache.velocity.context.Context;
-import org.apache.velocity.runtime.RuntimeConstants;
-import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
-import org.apache.velocity.tools.ToolManager;
-import org.jsoup.Jsoup;
-import org.jsoup.helper.W3CDom;
-import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.time.ZoneId;
 import java.util.List;
 import java.util.Locale;
 
@@ -35,7 +25,7 @@ import java.util.Locale;
 @Setter
 public class JokoReporter {
     private static final Logger LOGGER = LoggerFactory.getLogger(JokoReporter.class);
-    public static final String VELOCITY_TOOLS_CONFIG_PATH = "/tools/velocity-tools.xml";
+    public static final String VELOCITY_TOOLS_CONFIG_PATH = ReportEngine.VELOCITY_TOOLS_CONFIG_PATH;
     public static final String TOOLS = "Tools";
     public static final String PARAMS = "Params";
     public static final String STRING = "String";
@@ -98,35 +88,23 @@ public class JokoReporter {
     }
 
     /**
-     * Initialize the apache velocity engine and configures report context tools
+     * Retrieves the template from the shared apache velocity engine and configures report context tools
      *
      * @param reportTemplatePath
      * @param params
      */
     public void initializeContext(String reportTemplatePath, Object params) {
-        // Initializing velocity engine
-        VelocityEngine velocityEngine = new VelocityEngine();
-        velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
-        velocityEngine.setProperty("classpath.resource.loader.class", ClasspathResourceLoader.class.getName());
-        velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_INCLUDE, IncludeRelativePath.class.getName());
-        velocityEngine.init();
-
-        // Initializing template from path
-        this.setTemplate(velocityEngine.getTemplate(reportTemplatePath));
-
-        // Configuring context with the standard velocity generic tools
-        ToolManager toolManager = new ToolManager(false, true);
-        toolManager.configure(VELOCITY_TOOLS_CONFIG_PATH);
-        toolManager.setVelocityEngine(velocityEngine);
-        this.setContext(toolManager.createContext());
-
-        // Configuring context with the custom joko report tools
-        this.setReportTools(new ReportTools());
-        this.getContext().put(PARAMS, params);
-        this.getContext().put(STRING, String.class);
-        this.getContext().put(ZONE_ID, ZoneId.class);
-        this.updateReportTools();
-        this.setEscPrinter(new ESCPrinter(esc24pin));
+        // Retrieving the shared velocity engine
+        ReportEngine reportEngine = ReportEngine.getInstance();
+
+        // Initializing template from path, parsed templates are cached by the engine
+        this.setTemplate(reportEngine.getTemplate(reportTemplatePath));
+
+        // Configuring context with the standard velocity generic tools and the custom joko report tools
+        RenderContext renderContext = new RenderContext(params, ReportTools.getDefault(), new ESCPrinter(esc24pin));
+        this.setContext(renderContext.getContext());
+        this.setReportTools(renderContext.getReportTools());
+        this.setEscPrinter(renderContext.getEscPrinter());
     }
 
     /**
@@ -146,28 +124,91 @@ public class JokoReporter {
         this.updateReportTools();
     }
 
+    /**
+     * Process the template with the context params and the <strong>$copyNumber</strong> value. Every call renders
+     * the report again, the ESC/P2 commands of each copy are printed in sequence
+     *
+     * @param copyNumber
+     * @return
+     */
     public StringWriter buildReport(int copyNumber) throws JokoReportException {
-        this.getContext().put("copyNumber", copyNumber);
+        this.checkContext();
+        this.getContext().put(CopyRenderer.COPY_NUMBER, copyNumber);
+        this.writer = null;
         return this.buildReport();
     }
 
+    /**
+     * Builds the given number of copies of the report, numbered from 1 in <strong>$copyNumber</strong>.
+     * Parts of the template that don't depend on the copy are evaluated only once. The ESC/P2 commands of every copy
+     * are printed in sequence and the report output holds all the copies.
+     *
+     * @param copies
+     * @return the output of every copy
+     */
+    public List<String> buildCopies(int copies) throws JokoReportException {
+        this.checkContext();
+        List<String> outputs;
+        try {
+            outputs = CopyRenderer.render(this.getTemplate(), this.getContext(), this.getEscPrinter(), copies);
+        } catch (IOException e) {
+            throw new JokoReportException(e, ErrorMessages.REPORT_RENDER_ERROR, this.getTemplate().getName());
+        }
+        this.writer = new StringWriter();
+        for (String output : outputs) {
+            this.writer.write(output);
+        }
+        return outputs;
+    }
+
     /**
      * Process the template with the context params to build the report output
      *
      * @return
      */
     public StringWriter buildReport() throws JokoReportException {
-        if (this.getContext() == null) {
-            throw new JokoReportException("context.null", "Context is null. Please initialize context first");
-        }
+        this.checkContext();
         // If writer is not null report is already build
         if (writer == null) {
             writer = new StringWriter();
-            this.getTemplate().merge(this.getContext(), writer);
+            ReportEngine.getInstance().merge(this.getTemplate(), this.getContext(), writer);
         }
         return writer;
     }
 
+    /**
+     * Process the template with the context params writing the report output directly into the given writer,
+     * e.g. a servlet response writer. The output is not kept in memory and the writer is not closed.
+     *
+     * @param output
+     */
+    public void buildReport(Writer output) throws JokoReportException {
+        this.checkContext();
+        ReportEngine.getInstance().merge(this.getTemplate(), this.getContext(), output);
+    }
+
+    /**
+     * Process the template with the context params writing the report output directly into the given stream
+     * using UTF-8. The output is not kept in memory, the stream is flushed but not closed.
+     *
+     * @param outputStream
+     */
+    public void buildReport(OutputStream outputStream) throws JokoReportException {
+        Writer output = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.buildReport(output);
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new JokoReportException(e, ErrorMessages.REPORT_RENDER_ERROR, this.getTemplate().getName());
+        }
+    }
+
+    private void checkContext() throws JokoReportException {
+        if (this.getContext() == null) {
+            throw new JokoReportException("context.null", "Context is null. Please initialize context first");
+        }
+    }
+
     /**
      * Retrieves the report output as String
      * param escEnabled
@@ -213,51 +254,60 @@ public class JokoReporter {
     }
 
     /**
-     * Creates a temporary html file based with a given html String as the content of the file
+     * Generates a pdf byte array based on a given html String, with the shared {@link PdfRenderer}
      *
      * @return
      */
-    private static File createTmpFile(String content) throws IOException {
-        Path tempFile = Files.createTempFile("report-", ".html");
-        File file = tempFile.toFile();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
-            bw.write(content);
-        } catch (Exception e) {
-            throw new IOException(e);
-        }
-        return file;
+    public static ByteArrayOutputStream generatePDFFromHTML(String html) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PdfRenderer.getInstance().render(html, outputStream);
+        return outputStream;
     }
 
     /**
-     * Generates a pdf byte array based on a given html String
+     * Generates a pdf byte array based on a given html String, resolving its relative links against the given
+     * base URI instead of the configured one
      *
      * @return
      */
-    public static ByteArrayOutputStream generatePDFFromHTML(String html) throws IOException {
+    public static ByteArrayOutputStream generatePDFFromHTML(String html, String baseUri) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        File file = createTmpFile(html);
-        WebRequest webRequest = new WebRequest(file.toURI().toURL());
-        webRequest.setCharset(StandardCharsets.UTF_8);
+        PdfRenderer.getInstance().render(html, baseUri, outputStream);
+        return outputStream;
+    }
 
-        try (WebClient webClient = new WebClient()) {
-            webClient.getOptions().setJavaScriptEnabled(true);
-            webClient.setJavaScriptErrorListener(new WebClientErrorListener());
+    /**
+     * Generates the pdf of a given html String into a buffer that moves to a temporary file when the pdf is bigger
+     * than <strong>joko.report.pdf.output.spill-threshold</strong>, for reports too big to keep in the heap. The
+     * buffer must be closed to delete the temporary file
+     *
+     * @return
+     */
+    public static SpillingOutputStream generatePDFBufferFromHTML(String html) throws IOException {
+        return PdfRenderer.getInstance().renderToBuffer(html);
+    }
 
-            HtmlPage page = webClient.getPage(webRequest);
-            Document doc = Jsoup.parse(page.asXml());
-            outputStream = getPDFStream(new W3CDom().fromJsoup(doc), file.getAbsolutePath());
-        }
-        return outputStream;
+    /**
+     * Writes the pdf of a given html String directly into the given stream, e.g. a servlet response output stream,
+     * without copying it to a byte array. The stream is not closed
+     *
+     * @param html
+     * @param outputStream
+     */
+    public static void writePDFFromHTML(String html, OutputStream outputStream) throws IOException {
+        PdfRenderer.getInstance().render(html, outputStream);
     }
 
-    private static ByteArrayOutputStream getPDFStream(org.w3c.dom.Document htmlDoc, String uri) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        PdfRendererBuilder builder = new PdfRendererBuilder();
-        builder.useFastMode();
-        builder.withW3cDocument(htmlDoc, uri);
-        builder.toStream(outputStream);
-        builder.run();
-        return outputStream;
+    /**
+     * Writes the pdf of a given html String into the given stream laying out the pages between its page breaks in
+     * parallel, see {@link PdfRenderer#renderInParallel(String, String, PdfRenderMode, OutputStream)}. The stream is
+     * not closed
+     *
+     * @param html
+     * @param outputStream
+     */
+    public static void writePDFFromHTMLInParallel(String html, OutputStream outputStream) throws IOException {
+        PdfRenderer.getInstance().renderInParallel(html, outputStream);
     }
 
     /**
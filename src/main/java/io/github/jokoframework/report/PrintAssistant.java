@@ -2,6 +2,7 @@ package io.github.jokoframework.report;
 
 import io.github.jokoframework.report.exception.ErrorMessages;
 import io.github.jokoframework.report.exception.JokoReportException;
+import io.github.jokoframework.report.pdf.SpillingOutputStream;
 import org.cups4j.CupsClient;
 import org.cups4j.CupsPrinter;
 import org.cups4j.PrintJob;
@@ -13,7 +14,7 @@ import javax.print.PrintService;
 import javax.print.attribute.Attribute;
 import java.awt.print.PrinterJob;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.util.*;
 
 public class PrintAssistant {
@@ -139,9 +140,9 @@ public class PrintAssistant {
 
     public static void printAsPDF(CupsPrinter cupsPrinterService, String reportOutput)
             throws JokoReportException {
-        try {
+        try (SpillingOutputStream output = JokoReporter.generatePDFBufferFromHTML(reportOutput);
+             InputStream document = output.toInputStream()) {
 
-            ByteArrayOutputStream output = JokoReporter.generatePDFFromHTML(reportOutput);
             List<String> listMimeTypes = new ArrayList<>();
             listMimeTypes.add("application/pdf");
             List<String> listResolution = new ArrayList<>();
@@ -151,7 +152,7 @@ public class PrintAssistant {
             cupsPrinterService.setMimeTypesSupported(listMimeTypes);
             cupsPrinterService.setResolutionSupported(listResolution);
 
-            PrintJob printJob = new PrintJob.Builder(output.toByteArray())
+            PrintJob printJob = new PrintJob.Builder(document)
                     .copies(1)
                     .duplex(false)
                     .portrait(false)
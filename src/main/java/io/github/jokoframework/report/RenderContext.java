@@ -0,0 +1,55 @@
+package io.github.jokoframework.report;
+
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.printer.ESCPrinter;
+import io.github.jokoframework.report.tools.ReportTools;
+import org.apache.velocity.context.Context;
+
+import java.time.ZoneId;
+
+/**
+ * State of a single report rendering: the velocity context with the params and the tools, and the
+ * {@link ESCPrinter} that receives the ESC/P2 commands. A new instance is created for every render, so it is
+ * never shared between threads.
+ */
+public final class RenderContext {
+
+    private final Context context;
+    private final ReportTools reportTools;
+    private final ESCPrinter escPrinter;
+
+    public RenderContext(Object params, ReportTools reportTools, ESCPrinter escPrinter) {
+        this.context = ReportEngine.getInstance().createContext();
+        this.reportTools = reportTools;
+        this.escPrinter = escPrinter;
+        this.context.put(JokoReporter.PARAMS, params);
+        this.context.put(JokoReporter.STRING, String.class);
+        this.context.put(JokoReporter.ZONE_ID, ZoneId.class);
+        this.context.put(JokoReporter.TOOLS, reportTools);
+        this.context.put(JokoReporter.ESCP, escPrinter);
+    }
+
+    /**
+     * Adds a value to the velocity context of this render
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    public RenderContext put(String key, Object value) {
+        this.context.put(key, value);
+        return this;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public ReportTools getReportTools() {
+        return reportTools;
+    }
+
+    public ESCPrinter getEscPrinter() {
+        return escPrinter;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.jokoframework.report;
+
+/**
+ * Output formats a report can be rendered to
+ */
+public enum ReportFormat {
+    /**
+     * The merged template as UTF-8 text, e.g. html
+     */
+    TEXT,
+    /**
+     * The ESC/P2 commands written to <strong>$Escp</strong>
+     */
+    ESC,
+    /**
+     * The merged html template converted to pdf
+     */
+    PDF
+}
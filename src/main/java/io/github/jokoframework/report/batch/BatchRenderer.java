@@ -0,0 +1,156 @@
+package io.github.jokoframework.report.batch;
+
+import io.github.jokoframework.report.CompiledReport;
+import io.github.jokoframework.report.JokoReporter;
+import io.github.jokoframework.report.ReportFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Renders many param sets with the same {@link CompiledReport}, fanning the work out to an executor.
+ * <p>
+ * Results are delivered in the same order as the params, and at most <strong>maxInFlight</strong> items are
+ * rendered or waiting to be delivered at any time, so a stream of params is consumed as the results are handed to
+ * the sink instead of being materialized. An error rendering an item is reported in its {@link BatchResult} and
+ * does not stop the batch.
+ */
+public class BatchRenderer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchRenderer.class);
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+
+    public BatchRenderer(ExecutorService executor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight items must be greater than zero");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Creates the executor used to render the batches. Virtual threads are used when requested and the running
+     * JDK supports them, otherwise a fixed pool of platform threads is created.
+     *
+     * @param threads        number of platform threads, ignored for virtual threads
+     * @param virtualThreads
+     * @return
+     */
+    public static ExecutorService newExecutor(int threads, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Virtual threads are not available on this JDK, using {} platform threads", threads);
+            }
+        }
+        return Executors.newFixedThreadPool(threads, new BatchThreadFactory());
+    }
+
+    /**
+     * Renders every param set and retrieves the results in the same order
+     *
+     * @param report
+     * @param params
+     * @param format
+     * @return
+     */
+    public List<BatchResult> render(CompiledReport report, List<?> params, ReportFormat format) {
+        List<BatchResult> results = new ArrayList<>(params.size());
+        render(report, params.stream(), format, results::add);
+        return results;
+    }
+
+    /**
+     * Renders every param set handing the results to the sink, in the same order as the params, from the calling
+     * thread
+     *
+     * @param report
+     * @param params
+     * @param format
+     * @param sink
+     */
+    public void render(CompiledReport report, Stream<?> params, ReportFormat format, Consumer<BatchResult> sink) {
+        Deque<Future<BatchResult>> inFlight = new ArrayDeque<>();
+        int index = 0;
+        Iterator<?> iterator = params.iterator();
+        while (iterator.hasNext()) {
+            Object param = iterator.next();
+            int itemIndex = index++;
+            inFlight.add(executor.submit(() -> renderItem(report, itemIndex, param, format)));
+            if (inFlight.size() >= maxInFlight) {
+                sink.accept(await(inFlight.poll()));
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            sink.accept(await(inFlight.poll()));
+        }
+    }
+
+    private static BatchResult renderItem(CompiledReport report, int index, Object params, ReportFormat format) {
+        try {
+            byte[] output;
+            switch (format) {
+                case ESC:
+                    output = report.renderAsEscBytes(params);
+                    break;
+                case PDF:
+                    output = JokoReporter.generatePDFFromHTML(report.renderAsString(params)).toByteArray();
+                    break;
+                case TEXT:
+                default:
+                    output = report.renderAsString(params).getBytes(StandardCharsets.UTF_8);
+                    break;
+            }
+            return BatchResult.success(index, params, format, output);
+        } catch (Exception e) {
+            LOGGER.error("Error rendering item {} of {}: {}", index, report.getTemplatePath(), e.getMessage(), e);
+            return BatchResult.failure(index, params, format, e);
+        }
+    }
+
+    private static BatchResult await(Future<BatchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch rendering interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static class BatchThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "joko-report-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
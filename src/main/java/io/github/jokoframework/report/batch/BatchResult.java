@@ -0,0 +1,65 @@
+package io.github.jokoframework.report.batch;
+
+import io.github.jokoframework.report.ReportFormat;
+
+/**
+ * Outcome of rendering one item of a batch. A failed item carries its error and does not affect the rest of the
+ * batch.
+ */
+public final class BatchResult {
+
+    private final int index;
+    private final Object params;
+    private final ReportFormat format;
+    private final byte[] output;
+    private final Exception error;
+
+    private BatchResult(int index, Object params, ReportFormat format, byte[] output, Exception error) {
+        this.index = index;
+        this.params = params;
+        this.format = format;
+        this.output = output;
+        this.error = error;
+    }
+
+    static BatchResult success(int index, Object params, ReportFormat format, byte[] output) {
+        return new BatchResult(index, params, format, output, null);
+    }
+
+    static BatchResult failure(int index, Object params, ReportFormat format, Exception error) {
+        return new BatchResult(index, params, format, null, error);
+    }
+
+    /**
+     * @return position of the item in the batch, zero based
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public Object getParams() {
+        return params;
+    }
+
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the rendered report, null when the item failed
+     */
+    public byte[] getOutput() {
+        return output;
+    }
+
+    /**
+     * @return the error that made the item fail, null when it succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -1,8 +1,14 @@
 package io.github.jokoframework.report.component;
 
+import io.github.jokoframework.report.CompiledReport;
 import io.github.jokoframework.report.JokoReporter;
 import io.github.jokoframework.report.PrintAssistant;
+import io.github.jokoframework.report.ReportFormat;
+import io.github.jokoframework.report.batch.BatchRenderer;
+import io.github.jokoframework.report.batch.BatchResult;
 import io.github.jokoframework.report.exception.JokoReportException;
+import io.github.jokoframework.report.pdf.PdfPhase;
+import io.github.jokoframework.report.pdf.PdfRenderer;
 import io.github.jokoframework.report.printer.ESCPrinter;
 import org.cups4j.CupsPrinter;
 import org.slf4j.Logger;
@@ -10,13 +16,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.annotation.PreDestroy;
 import javax.print.PrintService;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.text.MessageFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * @author ncanatta
@@ -33,6 +48,17 @@ public class JokoReport {
     @Value("${joko.report.cups.server.port:631}")
     private int cupsServerPort;
 
+    @Value("${joko.report.batch.threads:0}")
+    private int batchThreads;
+
+    @Value("${joko.report.batch.virtual-threads:false}")
+    private boolean batchVirtualThreads;
+
+    @Value("${joko.report.batch.max-in-flight:0}")
+    private int batchMaxInFlight;
+
+    private BatchRenderer batchRenderer;
+
     /**
      * Retrieves all printers from cups server using the <strong>cusps4j</strong> library.
      * Uses the properties <strong>joko.report.cups.server.url</strong> and <strong>joko.report.cups.server.port</strong>
@@ -68,6 +94,21 @@ public class JokoReport {
         return PrintAssistant.findPrintService(name);
     }
 
+    /**
+     * Compiles a template into an immutable {@link CompiledReport} that can be rendered many times, concurrently,
+     * with different params
+     *
+     * @param templatePath
+     * @return
+     */
+    public CompiledReport compileReport(String templatePath) {
+        return CompiledReport.compile(templatePath);
+    }
+
+    public CompiledReport compileReport(String templatePath, boolean esc24pin) {
+        return CompiledReport.compile(templatePath, esc24pin);
+    }
+
     public JokoReporter newJokoReporter(String templatePath, Object params) {
         return JokoReporter.buildInstance(templatePath, params);
     }
@@ -108,16 +149,176 @@ public class JokoReport {
     }
 
     public byte[] getPDFAsByte(String templatePath, Object params) throws IOException {
-        JokoReporter jokoReporter = newJokoReporter(templatePath, params);
-        String reportOutput = jokoReporter.getAsString(false);
-        return jokoReporter.getPDFAsByte(reportOutput);
+        return JokoReporter.generatePDFFromHTML(mergeHtml(templatePath, params)).toByteArray();
+    }
+
+    /**
+     * Merges the template into the html of a pdf, recording the time in the {@link PdfPhase#MERGE} phase
+     */
+    private String mergeHtml(String templatePath, Object params) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return newJokoReporter(templatePath, params).buildReport().toString();
+        } catch (JokoReportException e) {
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            PdfPhase.MERGE.record(start);
+        }
+    }
+
+    /**
+     * Renders a text or html report directly into the given stream using UTF-8, e.g. a servlet response output
+     * stream, without keeping the whole output in memory. The stream is flushed but not closed.
+     *
+     * @param templatePath
+     * @param params
+     * @param outputStream
+     */
+    public void writeReport(String templatePath, Object params, OutputStream outputStream) throws JokoReportException {
+        CompiledReport.compile(templatePath).render(params, outputStream);
+    }
+
+    /**
+     * Renders a text or html report directly into the given writer without keeping the whole output in memory.
+     * The writer is not closed.
+     *
+     * @param templatePath
+     * @param params
+     * @param writer
+     */
+    public void writeReport(String templatePath, Object params, Writer writer) throws JokoReportException {
+        CompiledReport.compile(templatePath).render(params, writer);
+    }
+
+    /**
+     * Renders a report for every param set using the same compiled template, distributing the work on the batch
+     * executor. Uses the properties <strong>joko.report.batch.threads</strong> (default: available processors),
+     * <strong>joko.report.batch.virtual-threads</strong> and <strong>joko.report.batch.max-in-flight</strong>
+     * (default: twice the threads) to configure the executor.
+     *
+     * @param templatePath
+     * @param params
+     * @param format
+     * @return the results in the same order as the params, failed items carry their error
+     */
+    public List<BatchResult> renderBatch(String templatePath, List<?> params, ReportFormat format) {
+        return getBatchRenderer().render(compileReport(templatePath), params, format);
+    }
+
+    /**
+     * Renders a report for every param set using the same compiled template, handing each result to the sink in
+     * the same order as the params. The stream is consumed as the results are delivered.
+     *
+     * @param templatePath
+     * @param params
+     * @param format
+     * @param sink
+     */
+    public void renderBatch(String templatePath, Stream<?> params, ReportFormat format, Consumer<BatchResult> sink) {
+        getBatchRenderer().render(compileReport(templatePath), params, format, sink);
+    }
+
+    private synchronized BatchRenderer getBatchRenderer() {
+        if (batchRenderer == null) {
+            int threads = batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+            int maxInFlight = batchMaxInFlight > 0 ? batchMaxInFlight : threads * 2;
+            LOGGER.debug("Initializing batch renderer. Threads: {}, virtual threads: {}, max in flight: {}",
+                    threads, batchVirtualThreads, maxInFlight);
+            batchRenderer = new BatchRenderer(BatchRenderer.newExecutor(threads, batchVirtualThreads), maxInFlight);
+        }
+        return batchRenderer;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (batchRenderer != null) {
+            batchRenderer.close();
+            batchRenderer = null;
+        }
     }
 
     public ResponseEntity<byte[]> getPDFAsResponseEntity(String templatePath, Object params, String fileName) throws IOException {
         byte[] pdf = getPDFAsByte(templatePath, params);
+        return new ResponseEntity<>(pdf, pdfHeaders(fileName), HttpStatus.OK);
+    }
+
+    /**
+     * Renders the report as pdf directly into the given stream, e.g. a servlet response output stream, without
+     * copying the pdf to a byte array. The stream is not closed.
+     *
+     * @param templatePath
+     * @param params
+     * @param outputStream
+     */
+    public void writePDF(String templatePath, Object params, OutputStream outputStream) throws IOException {
+        JokoReporter.writePDFFromHTML(mergeHtml(templatePath, params), outputStream);
+    }
+
+    /**
+     * Renders the report as pdf into the given stream laying out the pages between the page breaks of the template
+     * in parallel, for long reports. The stream is not closed.
+     *
+     * @param templatePath
+     * @param params
+     * @param outputStream
+     */
+    public void writePDFInParallel(String templatePath, Object params, OutputStream outputStream) throws IOException {
+        JokoReporter.writePDFFromHTMLInParallel(mergeHtml(templatePath, params), outputStream);
+    }
+
+    /**
+     * Renders the report for every param set into a single pdf, e.g. the invoices of a month for mass printing. The
+     * documents are laid out in chunks sharing the embedded fonts and images and the chunks are joined on disk, see
+     * {@link PdfRenderer#renderMerged(Iterator, OutputStream)}. Uses the property
+     * <strong>joko.report.pdf.bulk.chunk-size</strong> to choose how many documents are laid out together. The
+     * stream of params is consumed as the chunks are rendered and the output stream is not closed.
+     *
+     * @param templatePath
+     * @param params
+     * @param outputStream
+     * @throws IllegalArgumentException when the stream of params is empty, nothing is written
+     */
+    public void writeMergedPDF(String templatePath, Stream<?> params, OutputStream outputStream) throws IOException {
+        CompiledReport report = compileReport(templatePath);
+        Iterator<String> htmls = params.map(param -> {
+            long start = System.nanoTime();
+            try {
+                return report.renderAsString(param);
+            } catch (JokoReportException e) {
+                throw new UncheckedIOException(new IOException(e.getMessage(), e));
+            } finally {
+                PdfPhase.MERGE.record(start);
+            }
+        }).iterator();
+        try {
+            PdfRenderer.getInstance().renderMerged(htmls, outputStream);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Builds a response entity that writes the pdf of the report into the response as it is generated, to use
+     * directly in a Spring controller. The template is merged before returning, the pdf is generated when the
+     * response is written.
+     *
+     * @param templatePath
+     * @param params
+     * @param fileName
+     * @return
+     */
+    public ResponseEntity<StreamingResponseBody> getPDFAsStreamingResponseEntity(String templatePath, Object params, String fileName)
+            throws IOException {
+        String html = mergeHtml(templatePath, params);
+        StreamingResponseBody body = outputStream -> JokoReporter.writePDFFromHTML(html, outputStream);
+        return new ResponseEntity<>(body, pdfHeaders(fileName), HttpStatus.OK);
+    }
+
+    private static HttpHeaders pdfHeaders(String fileName) {
         HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(MediaType.APPLICATION_PDF);
         httpHeaders.set(HttpHeaders.CONTENT_DISPOSITION, MessageFormat.format("attachment;filename={0}.pdf", fileName));
-        return new ResponseEntity<>(pdf, httpHeaders, HttpStatus.OK);
+        return httpHeaders;
     }
 
 }
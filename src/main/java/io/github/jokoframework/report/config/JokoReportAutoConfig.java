@@ -1,9 +1,126 @@
 package io.github.jokoframework.report.config;
 
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.engine.ReportEngineSettings;
+import io.github.jokoframework.report.pdf.PdfRenderMode;
+import io.github.jokoframework.report.pdf.PdfRenderer;
+import io.github.jokoframework.report.pdf.PdfSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 @ComponentScan("io.github.jokoframework.report.component")
 public class JokoReportAutoConfig {
+
+    /**
+     * Configures the shared {@link ReportEngine} used by every reporter.
+     * Uses the properties <strong>joko.report.template.cache.enabled</strong>,
+     * <strong>joko.report.template.cache.size</strong>,
+     * <strong>joko.report.template.cache.modification-check-interval</strong> (seconds),
+     * <strong>joko.report.template.compiled.enabled</strong>,
+     * <strong>joko.report.template.compiled.cache-dir</strong> (disabled by default) and
+     * <strong>joko.report.template.compiled.cache-key</strong>
+     *
+     * @return
+     */
+    @Bean
+    public ReportEngine jokoReportEngine(@Value("${joko.report.template.cache.enabled:true}") boolean cacheEnabled,
+                                         @Value("${joko.report.template.cache.size:" + ReportEngineSettings.DEFAULT_TEMPLATE_CACHE_SIZE + "}") int cacheSize,
+                                         @Value("${joko.report.template.cache.modification-check-interval:0}") long modificationCheckInterval,
+                                         @Value("${joko.report.template.compiled.enabled:true}") boolean compiledTemplatesEnabled,
+                                         @Value("${joko.report.template.compiled.cache-dir:}") String classCacheDir,
+                                         @Value("${joko.report.template.compiled.cache-key:}") String classCacheKey) {
+        ReportEngineSettings settings = new ReportEngineSettings();
+        settings.setTemplateCacheEnabled(cacheEnabled);
+        settings.setTemplateCacheSize(cacheSize);
+        settings.setModificationCheckInterval(modificationCheckInterval);
+        settings.setCompiledTemplatesEnabled(compiledTemplatesEnabled);
+        settings.setTemplateClassCacheDir(classCacheDir.isEmpty() ? null : classCacheDir);
+        settings.setTemplateClassCacheKey(classCacheKey.isEmpty() ? null : classCacheKey);
+        return ReportEngine.configure(settings);
+    }
+
+    /**
+     * Parses the templates matching <strong>joko.report.template.preload.locations</strong> (comma separated
+     * classpath patterns, e.g. classpath:/reports/**&#47;*.vm) when the application starts.
+     * <strong>joko.report.template.preload.parallel</strong> parses them in parallel and
+     * <strong>joko.report.template.preload.fail-on-error</strong> fails the startup when a template has errors
+     *
+     * @return
+     */
+    @Bean
+    public TemplatePreloader jokoReportTemplatePreloader(@Qualifier("jokoReportEngine") ReportEngine engine,
+                                                         @Value("${joko.report.template.preload.locations:}") List<String> locations,
+                                                         @Value("${joko.report.template.preload.parallel:false}") boolean parallel,
+                                                         @Value("${joko.report.template.preload.fail-on-error:true}") boolean failOnError) {
+        return new TemplatePreloader(engine, locations, parallel, failOnError);
+    }
+
+    /**
+     * Configures the shared {@link PdfRenderer} used to convert html reports to pdf.
+     * Uses the property <strong>joko.report.pdf.base-uri</strong> to resolve the relative links of the html and
+     * <strong>joko.report.pdf.mode</strong> (AUTO, DIRECT or JAVASCRIPT) to choose when the scripts of the html run.
+     * The web clients that run them are configured with <strong>joko.report.pdf.webclient.pool-size</strong>
+     * (default: available processors), <strong>joko.report.pdf.webclient.borrow-timeout</strong> (milliseconds) and
+     * <strong>joko.report.pdf.webclient.warm-up</strong>. <strong>joko.report.pdf.fonts</strong> registers fonts
+     * for every pdf (comma separated family[:weight[:style]]=location) and
+     * <strong>joko.report.pdf.resource-cache.max-bytes</strong> limits the linked resources kept in memory,
+     * <strong>joko.report.pdf.resource-cache.ttl</strong> (milliseconds) sets when cached http resources are
+     * revalidated.
+     * <strong>joko.report.pdf.parallelism</strong> (default: available processors) limits the page ranges of a pdf
+     * rendered at the same time. The admission control of the pdfs is configured with
+     * <strong>joko.report.pdf.admission.max-concurrent</strong> (default: available processors),
+     * <strong>joko.report.pdf.admission.max-bytes</strong> (default: a quarter of the max heap),
+     * <strong>joko.report.pdf.admission.max-queued</strong>, <strong>joko.report.pdf.admission.queue-timeout</strong>
+     * (milliseconds) and <strong>joko.report.pdf.admission.cost-factor</strong> (bytes per character of html).
+     * <strong>joko.report.pdf.bulk.chunk-size</strong> sets how many documents of a merged pdf are laid out together.
+     * Html with more characters than <strong>joko.report.pdf.large-document.threshold</strong> is rendered with a
+     * PDFBox scratch file and <strong>joko.report.pdf.output.spill-threshold</strong> limits the bytes of a pdf
+     * buffer kept in memory
+     *
+     * @return
+     */
+    @Bean
+    public PdfRenderer jokoReportPdfRenderer(@Value("${joko.report.pdf.base-uri:}") String baseUri,
+                                             @Value("${joko.report.pdf.mode:AUTO}") PdfRenderMode renderMode,
+                                             @Value("${joko.report.pdf.webclient.pool-size:0}") int webClientPoolSize,
+                                             @Value("${joko.report.pdf.webclient.borrow-timeout:" + PdfSettings.DEFAULT_WEB_CLIENT_BORROW_TIMEOUT + "}") long webClientBorrowTimeout,
+                                             @Value("${joko.report.pdf.webclient.warm-up:true}") boolean webClientWarmUp,
+                                             @Value("${joko.report.pdf.fonts:}") List<String> fonts,
+                                             @Value("${joko.report.pdf.resource-cache.max-bytes:" + PdfSettings.DEFAULT_RESOURCE_CACHE_MAX_BYTES + "}") long resourceCacheMaxBytes,
+                                             @Value("${joko.report.pdf.resource-cache.ttl:" + PdfSettings.DEFAULT_RESOURCE_CACHE_TTL + "}") long resourceCacheTtl,
+                                             @Value("${joko.report.pdf.parallelism:0}") int parallelism,
+                                             @Value("${joko.report.pdf.admission.max-concurrent:0}") int admissionMaxConcurrent,
+                                             @Value("${joko.report.pdf.admission.max-bytes:0}") long admissionMaxBytes,
+                                             @Value("${joko.report.pdf.admission.max-queued:" + PdfSettings.DEFAULT_ADMISSION_MAX_QUEUED + "}") int admissionMaxQueued,
+                                             @Value("${joko.report.pdf.admission.queue-timeout:" + PdfSettings.DEFAULT_ADMISSION_QUEUE_TIMEOUT + "}") long admissionQueueTimeout,
+                                             @Value("${joko.report.pdf.admission.cost-factor:" + PdfSettings.DEFAULT_ADMISSION_COST_FACTOR + "}") int admissionCostFactor,
+                                             @Value("${joko.report.pdf.bulk.chunk-size:" + PdfSettings.DEFAULT_BULK_CHUNK_SIZE + "}") int bulkChunkSize,
+                                             @Value("${joko.report.pdf.large-document.threshold:" + PdfSettings.DEFAULT_LARGE_DOCUMENT_THRESHOLD + "}") int largeDocumentThreshold,
+                                             @Value("${joko.report.pdf.output.spill-threshold:" + PdfSettings.DEFAULT_OUTPUT_SPILL_THRESHOLD + "}") long outputSpillThreshold) {
+        PdfSettings settings = new PdfSettings();
+        settings.setBaseUri(baseUri.isEmpty() ? null : baseUri);
+        settings.setRenderMode(renderMode);
+        settings.setWebClientPoolSize(webClientPoolSize);
+        settings.setWebClientBorrowTimeout(webClientBorrowTimeout);
+        settings.setWebClientWarmUp(webClientWarmUp);
+        settings.setFonts(fonts);
+        settings.setResourceCacheMaxBytes(resourceCacheMaxBytes);
+        settings.setResourceCacheTtl(resourceCacheTtl);
+        settings.setParallelism(parallelism);
+        settings.setAdmissionMaxConcurrent(admissionMaxConcurrent);
+        settings.setAdmissionMaxBytes(admissionMaxBytes);
+        settings.setAdmissionMaxQueued(admissionMaxQueued);
+        settings.setAdmissionQueueTimeout(admissionQueueTimeout);
+        settings.setAdmissionCostFactor(admissionCostFactor);
+        settings.setBulkChunkSize(bulkChunkSize);
+        settings.setLargeDocumentThreshold(largeDocumentThreshold);
+        settings.setOutputSpillThreshold(outputSpillThreshold);
+        return PdfRenderer.configure(settings);
+    }
 }
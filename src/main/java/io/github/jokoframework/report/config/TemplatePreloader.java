@@ -0,0 +1,144 @@
+package io.github.jokoframework.report.config;
+
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.exception.ErrorMessages;
+import io.github.jokoframework.report.exception.JokoReportException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parses every template matching the configured location patterns when the application starts, so the first
+ * report of each type doesn't pay for parsing and class loading on a request thread. A template with syntax
+ * errors fails the startup unless <strong>joko.report.template.preload.fail-on-error</strong> is false.
+ * <p>
+ * Only <strong>classpath:</strong> and <strong>classpath*:</strong> patterns are supported, because the report
+ * engine loads templates from the classpath.
+ */
+public class TemplatePreloader implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplatePreloader.class);
+    public static final String PRELOAD_TIMER = "joko.report.template.preload";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String CLASSPATH_ALL_PREFIX = "classpath*:";
+
+    private final ReportEngine engine;
+    private final List<String> locations;
+    private final boolean parallel;
+    private final boolean failOnError;
+    private final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public TemplatePreloader(ReportEngine engine, List<String> locations, boolean parallel, boolean failOnError) {
+        this.engine = engine;
+        this.locations = locations;
+        this.parallel = parallel;
+        this.failOnError = failOnError;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws JokoReportException {
+        if (locations.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Set<String> templatePaths = findTemplates();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        Stream<String> paths = parallel ? templatePaths.parallelStream() : templatePaths.stream();
+        paths.forEach(path -> preload(path, errors));
+        long elapsed = System.nanoTime() - start;
+
+        Timer.builder(PRELOAD_TIMER)
+                .description("Time spent parsing the report templates at startup")
+                .register(Metrics.globalRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        LOGGER.info("Preloaded {} report templates in {} ms ({} with errors)", templatePaths.size() - errors.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), errors.size());
+        if (!errors.isEmpty()) {
+            Map<String, String> sorted = new TreeMap<>(errors);
+            if (failOnError) {
+                throw new JokoReportException(ErrorMessages.TEMPLATE_PRELOAD_ERROR, sorted);
+            }
+            sorted.forEach((path, error) -> LOGGER.error("Template {} can't be parsed: {}", path, error));
+        }
+    }
+
+    private void preload(String templatePath, Map<String, String> errors) {
+        long start = System.nanoTime();
+        try {
+            engine.getCompiledTemplate(engine.getTemplate(templatePath));
+            LOGGER.debug("Template {} preloaded in {} ms", templatePath, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            errors.put(templatePath, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Resolves the location patterns into template paths relative to the classpath root
+     *
+     * @return
+     */
+    Set<String> findTemplates() throws JokoReportException {
+        Set<String> templatePaths = new TreeSet<>();
+        for (String location : locations) {
+            String pattern = classpathPattern(location);
+            String rootDir = rootDir(pattern);
+            try {
+                List<String> roots = new ArrayList<>();
+                for (Resource root : resolver.getResources(CLASSPATH_ALL_PREFIX + rootDir)) {
+                    roots.add(root.getURL().toString());
+                }
+                for (Resource resource : resolver.getResources(CLASSPATH_ALL_PREFIX + pattern)) {
+                    String url = resource.getURL().toString();
+                    roots.stream()
+                            .filter(url::startsWith)
+                            .map(root -> rootDir + url.substring(root.length()))
+                            .filter(path -> pathMatcher.match(pattern, path))
+                            .findFirst()
+                            .ifPresent(templatePaths::add);
+                }
+            } catch (IOException e) {
+                throw new JokoReportException(e, ErrorMessages.TEMPLATE_PRELOAD_ERROR, location);
+            }
+        }
+        return templatePaths;
+    }
+
+    private static String classpathPattern(String location) {
+        String pattern;
+        if (location.startsWith(CLASSPATH_ALL_PREFIX)) {
+            pattern = location.substring(CLASSPATH_ALL_PREFIX.length());
+        } else if (location.startsWith(CLASSPATH_PREFIX)) {
+            pattern = location.substring(CLASSPATH_PREFIX.length());
+        } else {
+            throw new IllegalArgumentException("Only classpath template locations are supported: " + location);
+        }
+        return StringUtils.trimLeadingCharacter(pattern, '/');
+    }
+
+    private String rootDir(String pattern) {
+        int end = pattern.length();
+        while (end > 0 && pathMatcher.isPattern(pattern.substring(0, end))) {
+            end = pattern.lastIndexOf('/', end - 2) + 1;
+        }
+        return pattern.substring(0, end);
+    }
+}
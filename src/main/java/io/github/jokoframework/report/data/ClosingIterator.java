@@ -0,0 +1,52 @@
+package io.github.jokoframework.report.data;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.BaseStream;
+
+/**
+ * Iterator over a stream that closes the stream, and so any resource behind it (e.g. a database cursor), as soon as
+ * the last element is consumed. When <strong>#foreach</strong> leaves the loop early, with <strong>#break</strong>,
+ * <strong>#stop</strong> or an exception, the report engine closes it at the end of the merge
+ *
+ * @param <T>
+ */
+public class ClosingIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final BaseStream<? extends T, ?> stream;
+    private final Iterator<? extends T> iterator;
+    private boolean closed;
+
+    public ClosingIterator(BaseStream<? extends T, ?> stream) {
+        this.stream = stream;
+        this.iterator = stream.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        boolean hasNext = iterator.hasNext();
+        if (!hasNext) {
+            close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            stream.close();
+        }
+    }
+}
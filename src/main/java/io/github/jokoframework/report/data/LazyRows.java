@@ -0,0 +1,68 @@
+package io.github.jokoframework.report.data;
+
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Factories of lazy row sources to be passed within the report params.
+ * <p>
+ * <strong>#foreach</strong> pulls the rows one by one while the template is merged, so combined with a streamed
+ * output only a window of rows is kept in memory instead of the whole dataset. Every factory returns an
+ * {@link Iterable} that opens a new source each time a loop starts iterating it.
+ */
+public final class LazyRows {
+
+    private LazyRows() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Rows from a stream, e.g. {@code () -> jdbcTemplate.queryForStream(sql, mapper)}. The stream is closed when
+     * the loop consumes the last row, or when the merge ends if the loop is left early.
+     *
+     * @param streamSupplier
+     * @param <T>
+     * @return
+     */
+    public static <T> Iterable<T> ofStream(Supplier<? extends Stream<T>> streamSupplier) {
+        return () -> new ClosingIterator<>(streamSupplier.get());
+    }
+
+    /**
+     * Rows from an iterator created on demand
+     *
+     * @param iteratorSupplier
+     * @param <T>
+     * @return
+     */
+    public static <T> Iterable<T> ofIterator(Supplier<? extends Iterator<T>> iteratorSupplier) {
+        return () -> iteratorSupplier.get();
+    }
+
+    /**
+     * Rows retrieved page by page, e.g. {@code (page, size) -> repository.findAll(PageRequest.of(page, size)).getContent()}
+     *
+     * @param pageSize
+     * @param fetcher
+     * @param <T>
+     * @return
+     */
+    public static <T> Iterable<T> ofPages(int pageSize, PagedIterator.PageFetcher<T> fetcher) {
+        return () -> new PagedIterator<>(pageSize, fetcher);
+    }
+
+    /**
+     * Rows mapped from a JDBC result set created on demand. The result set is closed when the loop consumes the
+     * last row, or when the merge ends if the loop is left early.
+     *
+     * @param resultSetSupplier
+     * @param rowMapper
+     * @param <T>
+     * @return
+     */
+    public static <T> Iterable<T> ofResultSet(Supplier<ResultSet> resultSetSupplier, ResultSetIterator.RowMapper<T> rowMapper) {
+        return () -> new ResultSetIterator<>(resultSetSupplier.get(), rowMapper);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.jokoframework.report.data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator that retrieves the rows page by page, e.g. from a paged repository query, keeping only the current page
+ * in memory. Iteration ends with the first page that has less rows than the page size.
+ *
+ * @param <T>
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    /**
+     * Retrieves a page of rows
+     *
+     * @param <T>
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        /**
+         * @param page     zero based page number
+         * @param pageSize max number of rows of the page
+         * @return the rows of the page, an empty list when there are no more rows
+         */
+        List<T> fetch(int page, int pageSize);
+    }
+
+    private final int pageSize;
+    private final PageFetcher<T> fetcher;
+    private Iterator<T> current = Collections.emptyIterator();
+    private int nextPage;
+    private boolean lastPage;
+
+    public PagedIterator(int pageSize, PageFetcher<T> fetcher) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext() && !lastPage) {
+            List<T> rows = fetcher.fetch(nextPage++, pageSize);
+            if (rows == null) {
+                rows = Collections.emptyList();
+            }
+            lastPage = rows.size() < pageSize;
+            current = rows.iterator();
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+}
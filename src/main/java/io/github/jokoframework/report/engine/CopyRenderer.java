@@ -0,0 +1,218 @@
+package io.github.jokoframework.report.engine;
+
+import io.github.jokoframework.report.printer.ESCPrinter;
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.runtime.parser.node.ASTDirective;
+import org.apache.velocity.runtime.parser.node.ASTReference;
+import org.apache.velocity.runtime.parser.node.ASTSetDirective;
+import org.apache.velocity.runtime.parser.node.Node;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Renders several copies of a report that only differ on the <strong>$copyNumber</strong> context value.
+ * <p>
+ * The top level nodes of the template are split in segments. A segment is re-rendered for every copy when it
+ * references <strong>$copyNumber</strong> or a variable assigned with <strong>#set</strong>, assigns variables itself,
+ * or calls a directive whose content can't be analyzed (macros, #parse, #evaluate...). Every other segment is
+ * rendered only for the first copy: its text and the ESC/P2 commands it printed are replayed on the next copies.
+ * Templates that never reference <strong>$copyNumber</strong> nor assign variables are rendered once and replicated,
+ * and templates using <strong>#stop</strong> or <strong>#break</strong> are fully rendered for every copy.
+ * <p>
+ * Method calls outside a <strong>#set</strong> that don't involve the copy, e.g. <strong>$list.add($item)</strong>,
+ * run only for the first copy. Calls whose side effects must happen on every copy have to be made inside a
+ * <strong>#set</strong>, e.g. <strong>#set ($added = $list.add($item))</strong>, as the ESC/P2 commands are.
+ */
+public final class CopyRenderer {
+
+    public static final String COPY_NUMBER = "copyNumber";
+    private static final Set<String> TRANSPARENT_DIRECTIVES = new HashSet<>(Arrays.asList("foreach", "literal", "include"));
+    private static final Set<String> STOP_DIRECTIVES = new HashSet<>(Arrays.asList("stop", "break"));
+    private static final Map<Object, CopyPlan> PLANS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private CopyRenderer() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Renders the copies numbered from 1 to <strong>copies</strong>. The ESC/P2 commands of every copy are printed
+     * in sequence on the given printer.
+     *
+     * @param template
+     * @param context
+     * @param escPrinter printer referenced by the context as <strong>$Escp</strong>
+     * @param copies
+     * @return the text output of every copy
+     */
+    public static List<String> render(Template template, Context context, ESCPrinter escPrinter, int copies) throws IOException {
+        List<String> outputs = new ArrayList<>();
+        if (copies <= 0) {
+            return outputs;
+        }
+        if (template.getData() == null) {
+            // Precompiled templates are not parsed, the copies are planned on the parsed AST
+            template = ReportEngine.getInstance().getParsedTemplate(template.getName());
+        }
+        Node root = (Node) template.getData();
+        CopyPlan plan = PLANS.computeIfAbsent(root, key -> new CopyPlan((Node) key));
+        if (!plan.copyDependent) {
+            context.put(COPY_NUMBER, 1);
+            ESCPrinter.Mark mark = escPrinter.mark();
+            StringWriter writer = new StringWriter();
+            ReportEngine.getInstance().merge(template, context, writer);
+            ESCPrinter.Fragment escOutput = escPrinter.getOutputSince(mark);
+            String output = writer.toString();
+            outputs.add(output);
+            for (int copy = 2; copy <= copies; copy++) {
+                escPrinter.append(escOutput);
+                outputs.add(output);
+            }
+        } else if (!plan.segmentable) {
+            for (int copy = 1; copy <= copies; copy++) {
+                context.put(COPY_NUMBER, copy);
+                StringWriter writer = new StringWriter();
+                ReportEngine.getInstance().merge(template, context, writer);
+                outputs.add(writer.toString());
+            }
+        } else {
+            renderSegments(template, root, plan, context, escPrinter, copies, outputs);
+        }
+        return outputs;
+    }
+
+    private static void renderSegments(Template template, Node root, CopyPlan plan, Context context,
+                                       ESCPrinter escPrinter, int copies, List<String> outputs) throws IOException {
+        InternalContextAdapterImpl ica = new InternalContextAdapterImpl(context);
+        ica.pushCurrentTemplateName(template.getName());
+        ica.setCurrentResource(template);
+        boolean tracking = OpenIterators.open();
+        try {
+            int segments = root.jjtGetNumChildren();
+            String[] texts = new String[segments];
+            ESCPrinter.Fragment[] escOutputs = new ESCPrinter.Fragment[segments];
+            for (int copy = 1; copy <= copies; copy++) {
+                ica.put(COPY_NUMBER, copy);
+                StringWriter writer = new StringWriter();
+                for (int i = 0; i < segments; i++) {
+                    Node segment = root.jjtGetChild(i);
+                    if (plan.dependent[i]) {
+                        segment.render(ica, writer);
+                    } else if (copy == 1) {
+                        ESCPrinter.Mark mark = escPrinter.mark();
+                        StringWriter segmentWriter = new StringWriter();
+                        segment.render(ica, segmentWriter);
+                        texts[i] = segmentWriter.toString();
+                        escOutputs[i] = escPrinter.getOutputSince(mark);
+                        writer.write(texts[i]);
+                    } else {
+                        writer.write(texts[i]);
+                        escPrinter.append(escOutputs[i]);
+                    }
+                }
+                outputs.add(writer.toString());
+            }
+        } finally {
+            ica.popCurrentTemplateName();
+            if (tracking) {
+                OpenIterators.close();
+            }
+        }
+    }
+
+    /**
+     * Result of analyzing which top level nodes of a template depend on the copy being rendered
+     */
+    private static final class CopyPlan {
+        private final Set<String> tainted = new HashSet<>();
+        private final boolean segmentable;
+        private final boolean copyDependent;
+        private final boolean[] dependent;
+
+        private CopyPlan(Node root) {
+            this.tainted.add(COPY_NUMBER);
+            collectAssignedVariables(root);
+            this.segmentable = !containsStop(root);
+            // Variables assigned by #set, besides $copyNumber, are assigned again on every copy
+            boolean assigns = tainted.size() > 1;
+            this.copyDependent = assigns || referencesCopyNumber(root) || containsOpaqueDirective(root);
+            this.dependent = new boolean[root.jjtGetNumChildren()];
+            for (int i = 0; i < dependent.length; i++) {
+                dependent[i] = isDependent(root.jjtGetChild(i));
+            }
+        }
+
+        private void collectAssignedVariables(Node node) {
+            if (node instanceof ASTSetDirective && node.jjtGetNumChildren() > 0 && node.jjtGetChild(0) instanceof ASTReference) {
+                tainted.add(((ASTReference) node.jjtGetChild(0)).getRootString());
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                collectAssignedVariables(node.jjtGetChild(i));
+            }
+        }
+
+        private static boolean containsStop(Node node) {
+            if (node instanceof ASTDirective && STOP_DIRECTIVES.contains(((ASTDirective) node).getDirectiveName())) {
+                return true;
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (containsStop(node.jjtGetChild(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean referencesCopyNumber(Node node) {
+            if (node instanceof ASTReference && COPY_NUMBER.equals(((ASTReference) node).getRootString())) {
+                return true;
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (referencesCopyNumber(node.jjtGetChild(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean containsOpaqueDirective(Node node) {
+            if (node instanceof ASTDirective && !TRANSPARENT_DIRECTIVES.contains(((ASTDirective) node).getDirectiveName())) {
+                return true;
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (containsOpaqueDirective(node.jjtGetChild(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isDependent(Node node) {
+            if (node instanceof ASTSetDirective) {
+                return true;
+            }
+            if (node instanceof ASTReference && tainted.contains(((ASTReference) node).getRootString())) {
+                return true;
+            }
+            if (node instanceof ASTDirective && !TRANSPARENT_DIRECTIVES.contains(((ASTDirective) node).getDirectiveName())) {
+                return true;
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                if (isDependent(node.jjtGetChild(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
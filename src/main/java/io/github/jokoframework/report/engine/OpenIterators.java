@@ -0,0 +1,67 @@
+package io.github.jokoframework.report.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closeable iterators, such as the streams and cursors of {@link io.github.jokoframework.report.data.LazyRows},
+ * started by <strong>#foreach</strong> while a template is merged on the current thread. They close themselves
+ * after the last row, the ones left early by <strong>#break</strong>, <strong>#stop</strong> or an exception are
+ * closed when the merge ends.
+ */
+final class OpenIterators {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenIterators.class);
+    private static final ThreadLocal<List<AutoCloseable>> OPEN = new ThreadLocal<>();
+
+    private OpenIterators() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Starts tracking the iterators of a merge, unless an outer merge of the same thread (e.g. <strong>#parse</strong>)
+     * already tracks them
+     *
+     * @return whether the caller must call {@link #close()} when the merge ends
+     */
+    static boolean open() {
+        if (OPEN.get() != null) {
+            return false;
+        }
+        OPEN.set(new ArrayList<>());
+        return true;
+    }
+
+    /**
+     * Tracks the iterator when it is closeable and a merge is running
+     *
+     * @param iterator
+     */
+    static void register(Object iterator) {
+        List<AutoCloseable> iterators = OPEN.get();
+        if (iterators != null && iterator instanceof AutoCloseable) {
+            iterators.add((AutoCloseable) iterator);
+        }
+    }
+
+    /**
+     * Closes the iterators tracked since {@link #open()} and stops tracking them
+     */
+    static void close() {
+        List<AutoCloseable> iterators = OPEN.get();
+        OPEN.remove();
+        if (iterators == null) {
+            return;
+        }
+        for (AutoCloseable iterator : iterators) {
+            try {
+                iterator.close();
+            } catch (Exception e) {
+                LOGGER.warn("Iterator {} could not be closed: {}", iterator, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.jokoframework.report.engine;
+
+import org.apache.velocity.util.introspection.VelPropertyGet;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Cache of the property accessors resolved by the {@link ReportUberspect}, one per (class, property).
+ * <p>
+ * Velocity decides which member backs a property (getter, boolean getter, <strong>get(String)</strong> or map key)
+ * and the cache replaces its reflective getter with a direct accessor: a {@link Function} generated with
+ * {@link LambdaMetafactory} when possible, a {@link MethodHandle} otherwise, and a plain
+ * {@link Map#get(Object)} call for maps. Members that can't be accessed that way keep the velocity getter.
+ */
+final class PropertyAccessors {
+
+    private static final String GET = "get";
+    static final VelPropertyGet MISSING = new MissingProperty();
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Function.class);
+    private static final MethodType APPLY_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final ClassValue<ConcurrentMap<String, VelPropertyGet>> accessors = new ClassValue<ConcurrentMap<String, VelPropertyGet>>() {
+        @Override
+        protected ConcurrentMap<String, VelPropertyGet> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Retrieves the cached accessor of a property
+     *
+     * @param type
+     * @param property
+     * @return the accessor, {@link #MISSING} when the class doesn't have the property, or null when it was not
+     * resolved yet
+     */
+    VelPropertyGet get(Class<?> type, String property) {
+        return accessors.get(type).get(property);
+    }
+
+    /**
+     * Caches the accessor that replaces the getter resolved by velocity
+     *
+     * @param type
+     * @param property
+     * @param velocityGetter getter resolved by velocity, null when the class doesn't have the property
+     * @return the accessor to use, null when the class doesn't have the property
+     */
+    VelPropertyGet put(Class<?> type, String property, VelPropertyGet velocityGetter) {
+        if (velocityGetter != null && !velocityGetter.isCacheable()) {
+            return velocityGetter;
+        }
+        VelPropertyGet accessor = velocityGetter == null ? MISSING : toAccessor(type, property, velocityGetter);
+        VelPropertyGet previous = accessors.get(type).putIfAbsent(property, accessor);
+        return unwrap(previous != null ? previous : accessor);
+    }
+
+    static VelPropertyGet unwrap(VelPropertyGet accessor) {
+        return accessor == MISSING ? null : accessor;
+    }
+
+    private static VelPropertyGet toAccessor(Class<?> type, String property, VelPropertyGet velocityGetter) {
+        String methodName = velocityGetter.getMethodName();
+        if (GET.equals(methodName) && Map.class.isAssignableFrom(type)) {
+            return new MapKeyAccessor(property);
+        }
+        try {
+            if (GET.equals(methodName)) {
+                Method method = publicMethod(type, GET, String.class);
+                if (method != null) {
+                    MethodHandle handle = MethodHandles.insertArguments(MethodHandles.publicLookup().unreflect(method), 1, property);
+                    return new HandleAccessor(methodName, handle.asType(APPLY_TYPE));
+                }
+            } else if (methodName != null) {
+                Method method = publicMethod(type, methodName);
+                if (method != null && method.getReturnType() != void.class) {
+                    return methodAccessor(method);
+                }
+                Field field = publicField(type, methodName);
+                if (field != null) {
+                    MethodHandle handle = MethodHandles.publicLookup().unreflectGetter(field);
+                    return new HandleAccessor(methodName, handle.asType(APPLY_TYPE));
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not accessible through a public lookup, velocity keeps resolving it
+        }
+        return velocityGetter;
+    }
+
+    private static VelPropertyGet methodAccessor(Method method) throws ReflectiveOperationException {
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+        Function<Object, Object> function = lambda(method, handle);
+        if (function != null) {
+            return new FunctionAccessor(method.getName(), function);
+        }
+        return new HandleAccessor(method.getName(), handle.asType(APPLY_TYPE));
+    }
+
+    /**
+     * Spins a {@link Function} calling the getter. Only done when the getter class is visible from this class
+     * loader, otherwise the generated class couldn't link against it.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambda(Method method, MethodHandle handle) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!isVisible(declaringClass)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> returnType = method.getReturnType().isPrimitive()
+                    ? MethodType.methodType(method.getReturnType()).wrap().returnType()
+                    : method.getReturnType();
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", FUNCTION_TYPE, APPLY_TYPE, handle,
+                    MethodType.methodType(returnType, declaringClass));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessors.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Finds a public method declared by a public class or interface, the way velocity's introspector does
+     */
+    private static Method publicMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                Method method = type.getMethod(name, parameterTypes);
+                if (Modifier.isPublic(method.getDeclaringClass().getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+        for (Class<?> implemented : type.getInterfaces()) {
+            Method method = publicMethod(implemented, name, parameterTypes);
+            if (method != null) {
+                return method;
+            }
+        }
+        return publicMethod(type.getSuperclass(), name, parameterTypes);
+    }
+
+    private static Field publicField(Class<?> type, String name) {
+        try {
+            Field field = type.getField(name);
+            if (Modifier.isPublic(field.getDeclaringClass().getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+                return field;
+            }
+        } catch (NoSuchFieldException e) {
+            // not a field
+        }
+        return null;
+    }
+
+    /**
+     * Accessor that reports the errors of the property the same way a reflective call does, wrapped in an
+     * {@link InvocationTargetException}
+     */
+    private abstract static class Accessor implements VelPropertyGet {
+        private final String methodName;
+
+        Accessor(String methodName) {
+            this.methodName = methodName;
+        }
+
+        @Override
+        public final Object invoke(Object o) throws InvocationTargetException {
+            try {
+                return get(o);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        abstract Object get(Object o) throws Throwable;
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    private static final class FunctionAccessor extends Accessor {
+        private final Function<Object, Object> function;
+
+        FunctionAccessor(String methodName, Function<Object, Object> function) {
+            super(methodName);
+            this.function = function;
+        }
+
+        @Override
+        Object get(Object o) {
+            return function.apply(o);
+        }
+    }
+
+    private static final class HandleAccessor extends Accessor {
+        private final MethodHandle handle;
+
+        HandleAccessor(String methodName, MethodHandle handle) {
+            super(methodName);
+            this.handle = handle;
+        }
+
+        @Override
+        Object get(Object o) throws Throwable {
+            return (Object) handle.invokeExact(o);
+        }
+    }
+
+    private static final class MapKeyAccessor extends Accessor {
+        private final String key;
+
+        MapKeyAccessor(String key) {
+            super(GET);
+            this.key = key;
+        }
+
+        @Override
+        Object get(Object o) {
+            return ((Map<?, ?>) o).get(key);
+        }
+    }
+
+    private static final class MissingProperty extends Accessor {
+        MissingProperty() {
+            super(null);
+        }
+
+        @Override
+        Object get(Object o) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package io.github.jokoframework.report.engine;
+
+import io.github.jokoframework.report.engine.compiler.AbstractCompiledTemplate;
+import io.github.jokoframework.report.engine.compiler.CompiledTemplates;
+import io.github.jokoframework.report.engine.compiler.TemplateClassCache;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.app.event.implement.IncludeRelativePath;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.velocity.tools.ToolContext;
+import org.apache.velocity.tools.ToolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide holder of the apache velocity engine used by the reporters.
+ * The engine is initialized only once and keeps a bounded cache of the parsed templates, so building a new
+ * report does not pay for the engine startup nor for parsing the .vm file again.
+ * The velocity tools configuration is also read once, the application scoped tools are shared by every report
+ * and only the request scoped toolbox is created for each new context.
+ * Templates compiled at build time by the {@link io.github.jokoframework.report.engine.compiler.TemplateCompiler}
+ * are rendered by their generated class instead of interpreting the parsed template. When a template class
+ * cache directory is configured, the classes of the other templates are generated at runtime and reused by the
+ * next starts of the application.
+ */
+public final class ReportEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportEngine.class);
+    public static final String VELOCITY_TOOLS_CONFIG_PATH = "/tools/velocity-tools.xml";
+    private static final String CLASSPATH_LOADER = "classpath";
+    private static final String RESOURCE_LOADER_PREFIX = "resource.loader." + CLASSPATH_LOADER + ".";
+    public static final String FIRST_RENDER_TIMER = "joko.report.render.first";
+
+    private static volatile ReportEngine instance;
+
+    private final ReportEngineSettings settings;
+    private final VelocityEngine velocityEngine;
+    private final ToolManager toolManager;
+    private final CompiledTemplates compiledTemplates;
+    private final Set<String> renderedTemplates = ConcurrentHashMap.newKeySet();
+
+    private ReportEngine(ReportEngineSettings settings) {
+        this.settings = settings;
+        this.velocityEngine = initializeVelocityEngine(settings);
+        this.toolManager = initializeToolManager(this.velocityEngine);
+        ReportUberspect uberspect = (ReportUberspect) velocityEngine.getApplicationAttribute(ReportUberspect.APPLICATION_ATTRIBUTE);
+        TemplateClassCache classCache = settings.getTemplateClassCacheDir() != null
+                ? new TemplateClassCache(Paths.get(settings.getTemplateClassCacheDir()), settings.getTemplateClassCacheKey())
+                : null;
+        this.compiledTemplates = new CompiledTemplates(uberspect.getRuntimeServices(), classCache);
+    }
+
+    /**
+     * Retrieves the shared engine, initializing it with the default settings when it was not configured yet
+     *
+     * @return
+     */
+    public static ReportEngine getInstance() {
+        ReportEngine engine = instance;
+        if (engine == null) {
+            synchronized (ReportEngine.class) {
+                engine = instance;
+                if (engine == null) {
+                    engine = new ReportEngine(new ReportEngineSettings());
+                    instance = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Replaces the shared engine with a new one initialized with the given settings.
+     * Templates cached by the previous engine are discarded.
+     *
+     * @param settings
+     * @return the new shared engine
+     */
+    public static synchronized ReportEngine configure(ReportEngineSettings settings) {
+        instance = new ReportEngine(settings);
+        return instance;
+    }
+
+    private static VelocityEngine initializeVelocityEngine(ReportEngineSettings settings) {
+        VelocityEngine velocityEngine = new VelocityEngine();
+        velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADERS, CLASSPATH_LOADER);
+        velocityEngine.setProperty(RESOURCE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_CLASS,
+                ClasspathResourceLoader.class.getName());
+        velocityEngine.setProperty(RESOURCE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_CACHE,
+                settings.isTemplateCacheEnabled());
+        velocityEngine.setProperty(RESOURCE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_CHECK_INTERVAL,
+                settings.getModificationCheckInterval());
+        velocityEngine.setProperty(RuntimeConstants.RESOURCE_MANAGER_DEFAULTCACHE_SIZE, settings.getTemplateCacheSize());
+        velocityEngine.setProperty(RuntimeConstants.EVENTHANDLER_INCLUDE, IncludeRelativePath.class.getName());
+        velocityEngine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, ReportUberspect.class.getName());
+        velocityEngine.init();
+        LOGGER.debug("Velocity engine initialized. Template cache enabled: {}, size: {}, modification check interval: {}s",
+                settings.isTemplateCacheEnabled(), settings.getTemplateCacheSize(), settings.getModificationCheckInterval());
+        return velocityEngine;
+    }
+
+    private static ToolManager initializeToolManager(VelocityEngine velocityEngine) {
+        ToolManager toolManager = new ToolManager(false, true);
+        toolManager.configure(VELOCITY_TOOLS_CONFIG_PATH);
+        toolManager.setVelocityEngine(velocityEngine);
+        // Builds the shared application toolbox before the engine is published to other threads
+        toolManager.createContext();
+        return toolManager;
+    }
+
+    /**
+     * Creates a new context with the standard velocity generic tools.
+     * Application scoped tools are shared, request scoped tools belong to the new context, and in both cases
+     * a tool is only instantiated the first time a template references it.
+     *
+     * @return
+     */
+    public ToolContext createContext() {
+        return toolManager.createContext();
+    }
+
+    /**
+     * Retrieves a parsed template from the engine cache, parsing it only on the first request
+     * (or when its source was modified and modification checks are enabled).
+     * A template with a self-contained compiled class is not parsed at all, unless the template cache is disabled
+     * or modification checks are enabled.
+     *
+     * @param templatePath classpath location of the .vm file
+     * @return
+     */
+    public Template getTemplate(String templatePath) {
+        if (settings.isCompiledTemplatesEnabled() && settings.isTemplateCacheEnabled() && settings.getModificationCheckInterval() <= 0) {
+            Template precompiled = compiledTemplates.getPrecompiled(templatePath);
+            if (precompiled != null) {
+                return precompiled;
+            }
+        }
+        return getParsedTemplate(templatePath);
+    }
+
+    /**
+     * Retrieves the template parsed by velocity, even when it has a self-contained compiled class
+     *
+     * @param templatePath classpath location of the .vm file
+     * @return
+     */
+    public Template getParsedTemplate(String templatePath) {
+        return velocityEngine.getTemplate(templatePath);
+    }
+
+    /**
+     * Renders a template into the writer, using its compiled class when there is one.
+     * The duration of the first render of each template is logged and published as a metric.
+     *
+     * @param template
+     * @param context
+     * @param writer
+     */
+    public void merge(Template template, Context context, Writer writer) {
+        if (!renderedTemplates.contains(template.getName())) {
+            long start = System.nanoTime();
+            doMerge(template, context, writer);
+            recordFirstRender(template.getName(), System.nanoTime() - start);
+            return;
+        }
+        doMerge(template, context, writer);
+    }
+
+    private void recordFirstRender(String templateName, long elapsed) {
+        if (renderedTemplates.add(templateName)) {
+            Timer.builder(FIRST_RENDER_TIMER)
+                    .description("Time spent rendering each report template for the first time")
+                    .tag("template", templateName)
+                    .register(Metrics.globalRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            LOGGER.info("First render of template {} took {} ms", templateName, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    private void doMerge(Template template, Context context, Writer writer) {
+        boolean tracking = OpenIterators.open();
+        try {
+            AbstractCompiledTemplate compiled = getCompiledTemplate(template);
+            if (compiled == null) {
+                template.merge(context, writer);
+                return;
+            }
+            compiled.merge(context, writer);
+        } catch (IOException e) {
+            throw new VelocityException("IO Error rendering template '" + template.getName() + "'", e);
+        } finally {
+            if (tracking) {
+                OpenIterators.close();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the class generated at build time, or cached at runtime, for a template
+     *
+     * @param template
+     * @return the compiled template or null when it is interpreted
+     */
+    public AbstractCompiledTemplate getCompiledTemplate(Template template) {
+        if (!settings.isCompiledTemplatesEnabled()) {
+            return null;
+        }
+        return compiledTemplates.get(template);
+    }
+
+    public VelocityEngine getVelocityEngine() {
+        return velocityEngine;
+    }
+
+    public ReportEngineSettings getSettings() {
+        return settings;
+    }
+}
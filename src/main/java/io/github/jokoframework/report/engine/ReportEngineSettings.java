@@ -0,0 +1,49 @@
+package io.github.jokoframework.report.engine;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings used to initialize the shared {@link ReportEngine}
+ */
+@Getter
+@Setter
+public class ReportEngineSettings {
+
+    public static final int DEFAULT_TEMPLATE_CACHE_SIZE = 100;
+
+    /**
+     * Keeps the parsed templates in memory. When disabled every request parses the .vm again
+     */
+    private boolean templateCacheEnabled = true;
+
+    /**
+     * Max number of parsed templates kept in memory, least recently used templates are evicted first.
+     * A value lower or equal than zero means an unbounded cache
+     */
+    private int templateCacheSize = DEFAULT_TEMPLATE_CACHE_SIZE;
+
+    /**
+     * Seconds between checks for modifications of a cached template source. A value lower or equal than zero
+     * disables the checks, which is the right choice for templates packaged inside a jar
+     */
+    private long modificationCheckInterval = 0;
+
+    /**
+     * Renders the templates with the classes generated at build time, when they exist and are up to date
+     */
+    private boolean compiledTemplatesEnabled = true;
+
+    /**
+     * Directory where the classes of the templates not compiled at build time are generated and kept between
+     * restarts. Null disables the cache
+     */
+    private String templateClassCacheDir;
+
+    /**
+     * Secret used to sign the classes of the template class cache, classes not signed with it are not loaded. Null
+     * only checks the classes against corruption
+     */
+    private String templateClassCacheKey;
+
+}
@@ -0,0 +1,78 @@
+package io.github.jokoframework.report.engine;
+
+import io.github.jokoframework.report.data.ClosingIterator;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.UberspectImpl;
+import org.apache.velocity.util.introspection.VelPropertyGet;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+/**
+ * Velocity introspector used by the {@link ReportEngine}.
+ * Besides the standard iterables, <strong>#foreach</strong> accepts {@link java.util.stream.Stream}s,
+ * {@link Spliterator}s and {@link Supplier}s of any of them, pulling the rows lazily while the template is merged.
+ * Streams are closed as soon as the loop consumes the last row, or when the merge ends if the loop is left early.
+ * <p>
+ * Property lookups like <strong>$Params.customer.name</strong> are resolved once per (class, property) and then
+ * dispatched through a generated accessor instead of reflection, see {@link PropertyAccessors}.
+ */
+public class ReportUberspect extends UberspectImpl {
+
+    /**
+     * Application attribute under which the uberspector registers itself in its velocity runtime
+     */
+    public static final String APPLICATION_ATTRIBUTE = ReportUberspect.class.getName();
+
+    private final PropertyAccessors propertyAccessors = new PropertyAccessors();
+    private RuntimeServices runtimeServices;
+
+    @Override
+    public void setRuntimeServices(RuntimeServices rs) {
+        super.setRuntimeServices(rs);
+        this.runtimeServices = rs;
+        rs.setApplicationAttribute(APPLICATION_ATTRIBUTE, this);
+    }
+
+    @Override
+    public Iterator<?> getIterator(Object obj, Info i) {
+        Iterator<?> iterator = iterator(obj, i);
+        OpenIterators.register(iterator);
+        return iterator;
+    }
+
+    private Iterator<?> iterator(Object obj, Info i) {
+        if (obj instanceof Supplier) {
+            return iterator(((Supplier<?>) obj).get(), i);
+        }
+        if (obj instanceof BaseStream) {
+            return new ClosingIterator<>((BaseStream<?, ?>) obj);
+        }
+        if (obj instanceof Spliterator) {
+            return Spliterators.iterator((Spliterator<?>) obj);
+        }
+        return super.getIterator(obj, i);
+    }
+
+    @Override
+    public VelPropertyGet getPropertyGet(Object obj, String identifier, Info i) {
+        // Properties of a Class instance depend on the instance, not on its class
+        if (obj == null || obj instanceof Class) {
+            return super.getPropertyGet(obj, identifier, i);
+        }
+        Class<?> type = obj.getClass();
+        VelPropertyGet accessor = propertyAccessors.get(type, identifier);
+        if (accessor != null) {
+            return PropertyAccessors.unwrap(accessor);
+        }
+        return propertyAccessors.put(type, identifier, super.getPropertyGet(obj, identifier, i));
+    }
+
+    public RuntimeServices getRuntimeServices() {
+        return runtimeServices;
+    }
+}
@@ -0,0 +1,354 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.Renderable;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.directive.StopCommand;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.util.DuckType;
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.Uberspect;
+import org.apache.velocity.util.introspection.VelMethod;
+import org.apache.velocity.util.introspection.VelPropertyGet;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Base class of the render classes generated by the {@link TemplateCompiler}.
+ * <p>
+ * The generated code writes the static text, walks the references, and runs <strong>#set</strong>,
+ * <strong>#if</strong> and <strong>#foreach</strong> without interpreting the template AST. Literals are inlined
+ * and property and method lookups are resolved by the engine uberspector once per call site and receiver class.
+ * Every other construct (macros, #parse, comparisons, arithmetic...) is delegated to the node parsed by the
+ * engine, so the output is the same as the one of {@link Template#merge(Context, Writer)}.
+ * <p>
+ * A new instance is bound to each parsed {@link Template}. Once bound it is immutable and thread-safe. A class
+ * without delegated nodes is {@link #isSelfContained() self-contained} and can be bound to a
+ * {@link PrecompiledTemplate}, which skips parsing the template source.
+ */
+public abstract class AbstractCompiledTemplate {
+
+    /**
+     * The only space gobbling mode supported by the generated code, the velocity default
+     */
+    public static final String SPACE_GOBBLING = "lines";
+    public static final String SPACE_GOBBLING_PROPERTY = "parser.space_gobbling";
+
+    private Template template;
+    private Uberspect uberspect;
+    private boolean checkEmpty;
+    private boolean skipInvalidIterator;
+
+    /**
+     * SHA-256 of the template source the class was generated from
+     *
+     * @return
+     */
+    public abstract String getSourceHash();
+
+    /**
+     * Whether the class renders the template without any node parsed by the engine
+     *
+     * @return
+     */
+    public boolean isSelfContained() {
+        return false;
+    }
+
+    /**
+     * Looks up the delegated nodes and creates the call sites of the template
+     *
+     * @param root
+     */
+    protected abstract void init(Node root);
+
+    protected abstract void render(InternalContextAdapter context, Writer writer) throws IOException;
+
+    /**
+     * Binds this instance to a template parsed by the engine
+     *
+     * @param template
+     * @param runtimeServices runtime of the engine that parsed the template
+     * @return false when the engine is configured in a way the generated code doesn't reproduce
+     */
+    public final boolean bind(Template template, RuntimeServices runtimeServices) {
+        if (!supports(runtimeServices) || (template.getData() == null && !isSelfContained())) {
+            return false;
+        }
+        this.template = template;
+        this.uberspect = runtimeServices.getUberspect();
+        this.checkEmpty = runtimeServices.getBoolean("directive.if.empty_check", true);
+        this.skipInvalidIterator = runtimeServices.getBoolean("directive.foreach.skip_invalid", true);
+        init((Node) template.getData());
+        return true;
+    }
+
+    /**
+     * Renders the template into the writer, the equivalent of {@link Template#merge(Context, Writer)}
+     *
+     * @param context
+     * @param writer
+     */
+    public final void merge(Context context, Writer writer) throws IOException {
+        InternalContextAdapterImpl ica = new InternalContextAdapterImpl(context);
+        Resource current = ica.getCurrentResource();
+        try {
+            ica.pushCurrentTemplateName(template.getName());
+            ica.setCurrentResource(template);
+            render(ica, writer);
+        } catch (StopCommand stop) {
+            if (!stop.isFor(template)) {
+                throw stop;
+            }
+        } finally {
+            ica.popCurrentTemplateName();
+            ica.setCurrentResource(current);
+        }
+    }
+
+    /**
+     * Whether the generated code reproduces the output of an engine with the given configuration
+     *
+     * @param runtimeServices
+     * @return
+     */
+    public static boolean supports(RuntimeServices runtimeServices) {
+        return SPACE_GOBBLING.equalsIgnoreCase(runtimeServices.getString(SPACE_GOBBLING_PROPERTY, SPACE_GOBBLING))
+                && runtimeServices.getInt("directive.foreach.max_loops", -1) <= 0
+                && !runtimeServices.getBoolean("template.provide.scope.control", false)
+                && !runtimeServices.getBoolean("runtime.strict_mode.enable", false);
+    }
+
+    public Template getTemplate() {
+        return template;
+    }
+
+    protected final Node node(Node root, Class<? extends Node> type, int... path) {
+        Node node = root;
+        for (int index : path) {
+            if (index >= node.jjtGetNumChildren()) {
+                throw new IllegalStateException("Template " + template.getName() + " doesn't match its compiled class at " + Arrays.toString(path));
+            }
+            node = node.jjtGetChild(index);
+        }
+        if (!type.isInstance(node)) {
+            throw new IllegalStateException("Template " + template.getName() + " doesn't match its compiled class at " + Arrays.toString(path));
+        }
+        return node;
+    }
+
+    protected final PropertySite property(String name, int line, int column) {
+        return new PropertySite(name, new Info(template.getName(), line, column));
+    }
+
+    protected final MethodSite method(String name, int line, int column) {
+        return new MethodSite(name, new Info(template.getName(), line, column));
+    }
+
+    /**
+     * Writes the value of a reference, or its literal when the value is null and the reference is not quiet
+     */
+    protected final void write(InternalContextAdapter context, Writer writer, Object value, String literal, boolean quiet) throws IOException {
+        if (value instanceof Renderable && ((Renderable) value).render(context, writer)) {
+            return;
+        }
+        String text = value == null || value instanceof Renderable ? null : DuckType.asString(value);
+        if (text != null) {
+            writer.write(text);
+        } else if (!quiet) {
+            writer.write(literal);
+        }
+    }
+
+    /**
+     * Truth value of a reference used as condition
+     */
+    protected final boolean truth(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return DuckType.asBoolean(value, checkEmpty);
+    }
+
+    protected final Iterator<?> iterator(Object iterable, int line, int column) {
+        if (iterable == null) {
+            return null;
+        }
+        Info info = new Info(template.getName(), line, column);
+        Iterator<?> iterator;
+        try {
+            iterator = uberspect.getIterator(iterable, info);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new VelocityException("Error getting iterator for #foreach at " + info, e);
+        }
+        if (iterator == null && !skipInvalidIterator) {
+            throw new VelocityException("Invalid object for #foreach at " + info + ": " + iterable.getClass().getName());
+        }
+        return iterator;
+    }
+
+    /**
+     * Restores the value a #foreach variable had before the loop
+     */
+    protected final void restore(InternalContextAdapter context, String key, Object saved) {
+        if (saved != null) {
+            context.put(key, saved);
+        } else {
+            context.remove(key);
+        }
+    }
+
+    private static VelocityException invocationError(String name, Info info, Exception e) {
+        Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+        return new VelocityException("Invocation of '" + name + "' at " + info + " threw exception "
+                + cause.getClass().getName() + ": " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Property lookup of a reference, resolved once per receiver class
+     */
+    protected final class PropertySite {
+        private final String name;
+        private final Info info;
+        private volatile PropertyBinding binding;
+
+        private PropertySite(String name, Info info) {
+            this.name = name;
+            this.info = info;
+        }
+
+        public Object get(Object target) {
+            if (target == null) {
+                return null;
+            }
+            PropertyBinding current = binding;
+            VelPropertyGet getter;
+            if (current != null && current.type == target.getClass()) {
+                getter = current.getter;
+            } else {
+                try {
+                    getter = uberspect.getPropertyGet(target, name, info);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw invocationError(name, info, e);
+                }
+                if (getter == null) {
+                    return null;
+                }
+                if (getter.isCacheable()) {
+                    binding = new PropertyBinding(target.getClass(), getter);
+                }
+            }
+            try {
+                return getter.invoke(target);
+            } catch (VelocityException e) {
+                throw e;
+            } catch (Exception e) {
+                throw invocationError(name, info, e);
+            }
+        }
+    }
+
+    /**
+     * Method call of a reference, resolved once per receiver class and argument classes
+     */
+    protected final class MethodSite {
+        private final String name;
+        private final Info info;
+        private volatile MethodBinding binding;
+
+        private MethodSite(String name, Info info) {
+            this.name = name;
+            this.info = info;
+        }
+
+        public Object invoke(Object target, Object[] args) {
+            if (target == null) {
+                return null;
+            }
+            MethodBinding current = binding;
+            VelMethod method;
+            if (current != null && current.matches(target, args)) {
+                method = current.method;
+            } else {
+                try {
+                    method = uberspect.getMethod(target, name, args, info);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw invocationError(name, info, e);
+                }
+                if (method == null) {
+                    return null;
+                }
+                if (method.isCacheable()) {
+                    binding = new MethodBinding(target, args, method);
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (VelocityException e) {
+                throw e;
+            } catch (Exception e) {
+                throw invocationError(name, info, e);
+            }
+            if (result == null && method.getReturnType() == Void.TYPE) {
+                return "";
+            }
+            return result;
+        }
+    }
+
+    private static final class PropertyBinding {
+        private final Class<?> type;
+        private final VelPropertyGet getter;
+
+        private PropertyBinding(Class<?> type, VelPropertyGet getter) {
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+
+    private static final class MethodBinding {
+        private final Class<?> type;
+        private final Class<?>[] argTypes;
+        private final VelMethod method;
+
+        private MethodBinding(Object target, Object[] args, VelMethod method) {
+            this.type = target.getClass();
+            this.argTypes = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argTypes[i] = args[i] == null ? null : args[i].getClass();
+            }
+            this.method = method;
+        }
+
+        private boolean matches(Object target, Object[] args) {
+            if (type != target.getClass() || argTypes.length != args.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (argTypes[i] != (args[i] == null ? null : args[i].getClass())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runtime registry of the render classes generated by the {@link TemplateCompiler}, or cached by the
+ * {@link TemplateClassCache} when there is one.
+ * Looks up the class of a template once and keeps it bound to the parsed template. When there is no class, it
+ * was generated from a different source, or it can't be bound, the template is interpreted.
+ */
+public class CompiledTemplates {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledTemplates.class);
+
+    private final RuntimeServices runtimeServices;
+    private final TemplateClassCache classCache;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<PrecompiledTemplate>> precompiled = new ConcurrentHashMap<>();
+
+    /**
+     * @param runtimeServices
+     * @param classCache      directory of the classes generated at runtime, null to use only the build time classes
+     */
+    public CompiledTemplates(RuntimeServices runtimeServices, TemplateClassCache classCache) {
+        this.runtimeServices = runtimeServices;
+        this.classCache = classCache;
+    }
+
+    /**
+     * Retrieves the compiled version of a parsed template
+     *
+     * @param template
+     * @return the compiled template or null when the template must be interpreted
+     */
+    public AbstractCompiledTemplate get(Template template) {
+        if (template instanceof PrecompiledTemplate) {
+            return ((PrecompiledTemplate) template).getCompiled();
+        }
+        Entry entry = entries.get(template.getName());
+        if (entry == null || entry.template != template) {
+            entry = new Entry(template, load(template));
+            entries.put(template.getName(), entry);
+        }
+        return entry.compiled;
+    }
+
+    /**
+     * Retrieves a template that is rendered by a self-contained class, without parsing its source
+     *
+     * @param templatePath
+     * @return the template or null when the source must be parsed
+     */
+    public Template getPrecompiled(String templatePath) {
+        return precompiled.computeIfAbsent(templatePath, path -> Optional.ofNullable(loadPrecompiled(path))).orElse(null);
+    }
+
+    private PrecompiledTemplate loadPrecompiled(String templatePath) {
+        String className = TemplateClassNames.classNameFor(templatePath);
+        try {
+            byte[] source = TemplateSources.read(templatePath);
+            if (source == null) {
+                return null;
+            }
+            AbstractCompiledTemplate compiled = newInstance(className, TemplateSources.hash(source));
+            if (compiled == null || !compiled.isSelfContained()) {
+                return null;
+            }
+            PrecompiledTemplate template = new PrecompiledTemplate(templatePath, compiled, runtimeServices);
+            if (!compiled.bind(template, runtimeServices)) {
+                return null;
+            }
+            LOGGER.debug("Template {} rendered by self-contained class {} without parsing", templatePath, className);
+            return template;
+        } catch (IOException | ReflectiveOperationException | RuntimeException | LinkageError e) {
+            LOGGER.warn("Compiled class {} can't be used, template {} will be parsed: {}", className, templatePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private AbstractCompiledTemplate load(Template template) {
+        String className = TemplateClassNames.classNameFor(template.getName());
+        try {
+            byte[] source = TemplateSources.read(template.getName());
+            if (source == null) {
+                LOGGER.debug("Source of template {} not found, it will be interpreted", template.getName());
+                return null;
+            }
+            String sourceHash = TemplateSources.hash(source);
+            AbstractCompiledTemplate compiled = newInstance(className, sourceHash);
+            if (compiled == null) {
+                LOGGER.debug("No compiled class for template {}, it will be interpreted", template.getName());
+                if (classCache != null && AbstractCompiledTemplate.supports(runtimeServices)) {
+                    classCache.storeLater(template, sourceHash);
+                }
+                return null;
+            }
+            if (!compiled.bind(template, runtimeServices)) {
+                LOGGER.warn("Compiled class {} doesn't support the engine configuration, template {} will be interpreted",
+                        className, template.getName());
+                return null;
+            }
+            LOGGER.debug("Template {} rendered by compiled class {}", template.getName(), className);
+            return compiled;
+        } catch (IOException | ReflectiveOperationException | RuntimeException | LinkageError e) {
+            LOGGER.warn("Compiled class {} can't be used, template {} will be interpreted: {}", className, template.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Instantiates the class generated at build time, or the cached one, for the given template source
+     *
+     * @return an unbound instance or null when there is no class generated from that source
+     */
+    private AbstractCompiledTemplate newInstance(String className, String sourceHash) throws ReflectiveOperationException {
+        try {
+            Class<?> type = Class.forName(className, true, classLoader());
+            AbstractCompiledTemplate compiled = (AbstractCompiledTemplate) type.getDeclaredConstructor().newInstance();
+            if (compiled.getSourceHash().equals(sourceHash)) {
+                return compiled;
+            }
+            LOGGER.warn("Compiled class {} is out of date with its template", className);
+        } catch (ClassNotFoundException e) {
+            // not compiled at build time
+        }
+        Class<? extends AbstractCompiledTemplate> cached = classCache != null ? classCache.load(className, sourceHash) : null;
+        if (cached == null) {
+            return null;
+        }
+        AbstractCompiledTemplate compiled = cached.getDeclaredConstructor().newInstance();
+        return compiled.getSourceHash().equals(sourceHash) ? compiled : null;
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        return contextClassLoader != null ? contextClassLoader : CompiledTemplates.class.getClassLoader();
+    }
+
+    private static final class Entry {
+        private final Template template;
+        private final AbstractCompiledTemplate compiled;
+
+        private Entry(Template template, AbstractCompiledTemplate compiled) {
+            this.template = template;
+            this.compiled = compiled;
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.context.InternalContextAdapterImpl;
+import org.apache.velocity.runtime.parser.node.ASTAndNode;
+import org.apache.velocity.runtime.parser.node.ASTBlock;
+import org.apache.velocity.runtime.parser.node.ASTComment;
+import org.apache.velocity.runtime.parser.node.ASTDirective;
+import org.apache.velocity.runtime.parser.node.ASTElseIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTElseStatement;
+import org.apache.velocity.runtime.parser.node.ASTExpression;
+import org.apache.velocity.runtime.parser.node.ASTFalse;
+import org.apache.velocity.runtime.parser.node.ASTFloatingPointLiteral;
+import org.apache.velocity.runtime.parser.node.ASTIdentifier;
+import org.apache.velocity.runtime.parser.node.ASTIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTIntegerLiteral;
+import org.apache.velocity.runtime.parser.node.ASTMethod;
+import org.apache.velocity.runtime.parser.node.ASTNotNode;
+import org.apache.velocity.runtime.parser.node.ASTOrNode;
+import org.apache.velocity.runtime.parser.node.ASTReference;
+import org.apache.velocity.runtime.parser.node.ASTSetDirective;
+import org.apache.velocity.runtime.parser.node.ASTStringLiteral;
+import org.apache.velocity.runtime.parser.node.ASTText;
+import org.apache.velocity.runtime.parser.node.ASTTextblock;
+import org.apache.velocity.runtime.parser.node.ASTTrue;
+import org.apache.velocity.runtime.parser.node.Node;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the AST of a parsed template into the Java source of an {@link AbstractCompiledTemplate}.
+ * <p>
+ * Text, references with properties and method calls, <strong>#set</strong> of a simple variable,
+ * <strong>#if/#elseif/#else</strong> and <strong>#foreach</strong> are translated to Java code and literals are
+ * inlined as constants. Any other node is kept as a call to the node parsed by the engine at runtime, located by
+ * its position in the tree.
+ */
+public final class JavaTemplateGenerator {
+
+    private static final int ROOT_CHUNK_SIZE = 100;
+    private static final int TEXT_CHUNK_SIZE = 8000;
+    private static final String FOREACH = "foreach";
+
+    private final String templatePath;
+    private final String sourceHash;
+    private final String packageName;
+    private final String simpleName;
+
+    private final StringBuilder fields = new StringBuilder();
+    private final StringBuilder init = new StringBuilder();
+    private final List<StringBuilder> methods = new ArrayList<>();
+    private int nodeCount;
+    private int constantCount;
+    private int siteCount;
+    private int methodCount;
+    private int loopCount;
+    private int nativeNodes;
+    private int delegatedNodes;
+
+    public JavaTemplateGenerator(String templatePath, String sourceHash) {
+        this.templatePath = TemplateClassNames.normalize(templatePath);
+        this.sourceHash = sourceHash;
+        String className = TemplateClassNames.classNameFor(templatePath);
+        int lastDot = className.lastIndexOf('.');
+        this.packageName = className.substring(0, lastDot);
+        this.simpleName = className.substring(lastDot + 1);
+    }
+
+    /**
+     * Generates the source of the render class
+     *
+     * @param root root node of the template parsed with the same settings used by the engine
+     * @return
+     */
+    public String generate(Node root) {
+        StringBuilder render = new StringBuilder();
+        int children = root.jjtGetNumChildren();
+        for (int start = 0; start < children; start += ROOT_CHUNK_SIZE) {
+            String name = "part" + (start / ROOT_CHUNK_SIZE);
+            StringBuilder body = new StringBuilder();
+            for (int i = start; i < Math.min(children, start + ROOT_CHUNK_SIZE); i++) {
+                statement(body, root.jjtGetChild(i), new int[]{i}, 2);
+            }
+            methods.add(renderMethod(name, body));
+            render.append("        ").append(name).append("(context, writer);\n");
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n")
+                .append("import io.github.jokoframework.report.engine.compiler.AbstractCompiledTemplate;\n")
+                .append("import org.apache.velocity.context.InternalContextAdapter;\n")
+                .append("import org.apache.velocity.runtime.parser.node.Node;\n\n")
+                .append("import java.io.IOException;\n")
+                .append("import java.io.Writer;\n")
+                .append("import java.util.Iterator;\n\n")
+                .append("/**\n")
+                .append(" * Generated from ").append(templatePath).append(" by ").append(TemplateCompiler.class.getSimpleName())
+                .append(". Do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName).append(" extends AbstractCompiledTemplate {\n\n")
+                .append("    public static final String TEMPLATE_PATH = ").append(literal(templatePath)).append(";\n")
+                .append("    public static final String SOURCE_HASH = ").append(literal(sourceHash)).append(";\n")
+                .append("    public static final boolean SELF_CONTAINED = ").append(isSelfContained()).append(";\n\n")
+                .append(fields).append('\n')
+                .append("    @Override\n")
+                .append("    public String getSourceHash() {\n")
+                .append("        return SOURCE_HASH;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean isSelfContained() {\n")
+                .append("        return SELF_CONTAINED;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected void init(Node root) {\n")
+                .append(init)
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    protected void render(InternalContextAdapter context, Writer writer) throws IOException {\n")
+                .append(render)
+                .append("    }\n");
+        for (StringBuilder method : methods) {
+            source.append('\n').append(method);
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    public String getClassName() {
+        return packageName + "." + simpleName;
+    }
+
+    /**
+     * Number of nodes translated to Java code in the last generation
+     *
+     * @return
+     */
+    public int getNativeNodes() {
+        return nativeNodes;
+    }
+
+    /**
+     * Whether the generated class renders the template without the AST parsed by the engine
+     *
+     * @return
+     */
+    public boolean isSelfContained() {
+        return delegatedNodes == 0;
+    }
+
+    /**
+     * Number of nodes delegated to the engine in the last generation
+     *
+     * @return
+     */
+    public int getDelegatedNodes() {
+        return delegatedNodes;
+    }
+
+    private void statement(StringBuilder out, Node node, int[] path, int depth) {
+        String indent = indent(depth);
+        if (node instanceof ASTText || node instanceof ASTTextblock || node instanceof ASTComment) {
+            String text = staticText(node);
+            if (text != null) {
+                nativeNodes++;
+                for (int i = 0; i < text.length(); i += TEXT_CHUNK_SIZE) {
+                    String chunk = text.substring(i, Math.min(text.length(), i + TEXT_CHUNK_SIZE));
+                    out.append(indent).append("writer.write(").append(literal(chunk)).append(");\n");
+                }
+                return;
+            }
+        } else if (node instanceof ASTReference && isNativeReference((ASTReference) node)) {
+            nativeNodes++;
+            boolean quiet = ((ASTReference) node).getFirstTokenImage().startsWith("$!");
+            out.append(indent).append("write(context, writer, ").append(reference((ASTReference) node, path))
+                    .append(", ").append(literal(node.literal())).append(", ").append(quiet).append(");\n");
+            return;
+        } else if (node instanceof ASTSetDirective && isNativeSet(node)) {
+            nativeNodes++;
+            String left = literal(((ASTReference) node.jjtGetChild(0)).getRootString());
+            out.append(indent).append("context.put(").append(left).append(", ")
+                    .append(value(node.jjtGetChild(1), child(path, 1))).append(");\n");
+            return;
+        } else if (node instanceof ASTIfStatement && isNativeIf(node)) {
+            nativeNodes++;
+            ifStatement(out, node, path, depth);
+            return;
+        } else if (node instanceof ASTDirective && isNativeForeach((ASTDirective) node)) {
+            nativeNodes++;
+            foreach(out, node, path, depth);
+            return;
+        }
+        delegatedNodes++;
+        out.append(indent).append(nodeField(node, path)).append(".render(context, writer);\n");
+    }
+
+    private void ifStatement(StringBuilder out, Node node, int[] path, int depth) {
+        String indent = indent(depth);
+        out.append(indent).append("if (").append(condition(node.jjtGetChild(0), child(path, 0))).append(") {\n")
+                .append(indent).append("    ").append(block(node.jjtGetChild(1), child(path, 1))).append(";\n");
+        for (int i = 2; i < node.jjtGetNumChildren(); i++) {
+            Node clause = node.jjtGetChild(i);
+            int[] clausePath = child(path, i);
+            if (clause instanceof ASTElseIfStatement) {
+                out.append(indent).append("} else if (").append(condition(clause.jjtGetChild(0), child(clausePath, 0))).append(") {\n")
+                        .append(indent).append("    ").append(block(clause.jjtGetChild(1), child(clausePath, 1))).append(";\n");
+            } else {
+                out.append(indent).append("} else {\n")
+                        .append(indent).append("    ").append(block(clause.jjtGetChild(0), child(clausePath, 0))).append(";\n");
+            }
+        }
+        out.append(indent).append("}\n");
+    }
+
+    private void foreach(StringBuilder out, Node node, int[] path, int depth) {
+        String indent = indent(depth);
+        int loop = loopCount++;
+        String key = literal(((ASTReference) node.jjtGetChild(0)).getRootString());
+        String iterator = "iterator" + loop;
+        String saved = "saved" + loop;
+        out.append(indent).append("Iterator<?> ").append(iterator).append(" = iterator(")
+                .append(value(node.jjtGetChild(2), child(path, 2))).append(", ")
+                .append(node.getLine()).append(", ").append(node.getColumn()).append(");\n")
+                .append(indent).append("if (").append(iterator).append(" != null) {\n")
+                .append(indent).append("    Object ").append(saved).append(" = context.get(").append(key).append(");\n")
+                .append(indent).append("    try {\n")
+                .append(indent).append("        while (").append(iterator).append(".hasNext()) {\n")
+                .append(indent).append("            context.put(").append(key).append(", ").append(iterator).append(".next());\n")
+                .append(indent).append("            ").append(block(node.jjtGetChild(3), child(path, 3))).append(";\n")
+                .append(indent).append("        }\n")
+                .append(indent).append("    } finally {\n")
+                .append(indent).append("        restore(context, ").append(key).append(", ").append(saved).append(");\n")
+                .append(indent).append("    }\n")
+                .append(indent).append("}\n");
+    }
+
+    /**
+     * Generates a method that renders the children of a block and returns the call to it
+     */
+    private String block(Node block, int[] path) {
+        String name = "block" + methodCount++;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < block.jjtGetNumChildren(); i++) {
+            statement(body, block.jjtGetChild(i), child(path, i), 2);
+        }
+        methods.add(renderMethod(name, body));
+        return name + "(context, writer)";
+    }
+
+    private String condition(Node node, int[] path) {
+        if (node instanceof ASTExpression && node.jjtGetNumChildren() == 1) {
+            return condition(node.jjtGetChild(0), child(path, 0));
+        }
+        if (node instanceof ASTNotNode && node.jjtGetNumChildren() == 1) {
+            return "!(" + condition(node.jjtGetChild(0), child(path, 0)) + ")";
+        }
+        if ((node instanceof ASTAndNode || node instanceof ASTOrNode) && node.jjtGetNumChildren() == 2) {
+            String operator = node instanceof ASTAndNode ? " && " : " || ";
+            return "(" + condition(node.jjtGetChild(0), child(path, 0)) + operator
+                    + condition(node.jjtGetChild(1), child(path, 1)) + ")";
+        }
+        if (node instanceof ASTTrue) {
+            return "true";
+        }
+        if (node instanceof ASTFalse) {
+            return "false";
+        }
+        if (node instanceof ASTReference && isNativeReference((ASTReference) node)) {
+            return "truth(" + reference((ASTReference) node, path) + ")";
+        }
+        delegatedNodes++;
+        return nodeField(node, path) + ".evaluate(context)";
+    }
+
+    private String value(Node node, int[] path) {
+        if (node instanceof ASTExpression && node.jjtGetNumChildren() == 1) {
+            return value(node.jjtGetChild(0), child(path, 0));
+        }
+        if (node instanceof ASTReference && isNativeReference((ASTReference) node)) {
+            return reference((ASTReference) node, path);
+        }
+        String constant = constant(node);
+        if (constant != null) {
+            String name = "CONSTANT_" + constantCount++;
+            fields.append("    private static final Object ").append(name).append(" = ").append(constant).append(";\n");
+            return name;
+        }
+        delegatedNodes++;
+        return nodeField(node, path) + ".value(context)";
+    }
+
+    /**
+     * Generates a method that resolves the reference and returns the call to it
+     */
+    private String reference(ASTReference node, int[] path) {
+        String name = "reference" + methodCount++;
+        StringBuilder method = new StringBuilder();
+        method.append("    private Object ").append(name).append("(InternalContextAdapter context) {\n")
+                .append("        Object value = context.get(").append(literal(node.getRootString())).append(");\n");
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            Node segment = node.jjtGetChild(i);
+            String site = "site" + siteCount++;
+            String segmentName = segment instanceof ASTIdentifier
+                    ? ((ASTIdentifier) segment).getIdentifier() : ((ASTMethod) segment).getMethodName();
+            method.append("        if (value == null) {\n")
+                    .append("            return null;\n")
+                    .append("        }\n");
+            if (segment instanceof ASTIdentifier) {
+                fields.append("    private PropertySite ").append(site).append(";\n");
+                init.append("        ").append(site).append(" = property(").append(literal(segmentName)).append(", ")
+                        .append(segment.getLine()).append(", ").append(segment.getColumn()).append(");\n");
+                method.append("        value = ").append(site).append(".get(value);\n");
+            } else {
+                fields.append("    private MethodSite ").append(site).append(";\n");
+                init.append("        ").append(site).append(" = method(").append(literal(segmentName)).append(", ")
+                        .append(segment.getLine()).append(", ").append(segment.getColumn()).append(");\n");
+                StringBuilder args = new StringBuilder();
+                int[] segmentPath = child(path, i);
+                for (int j = 1; j < segment.jjtGetNumChildren(); j++) {
+                    args.append(j > 1 ? ", " : "").append(value(segment.jjtGetChild(j), child(segmentPath, j)));
+                }
+                method.append("        value = ").append(site).append(".invoke(value, new Object[]{").append(args).append("});\n");
+            }
+        }
+        method.append("        return value;\n")
+                .append("    }\n");
+        methods.add(method);
+        return name + "(context)";
+    }
+
+    private String nodeField(Node node, int[] path) {
+        String type = node.getClass().getName();
+        String name = "node" + nodeCount++;
+        fields.append("    private ").append(type).append(' ').append(name).append(";\n");
+        init.append("        ").append(name).append(" = (").append(type).append(") node(root, ").append(type)
+                .append(".class").append(pathArguments(path)).append(");\n");
+        return name;
+    }
+
+    private static boolean isNativeReference(ASTReference node) {
+        String image = node.getFirstTokenImage();
+        if (image == null || !image.startsWith("$") || isEscaped(node)) {
+            return false;
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            Node segment = node.jjtGetChild(i);
+            if (!(segment instanceof ASTIdentifier || segment instanceof ASTMethod)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The engine strips the backslashes from the tokens when it inits the node, an escaped reference is told apart
+     * because it keeps them when rendered without a value
+     */
+    private static boolean isEscaped(ASTReference node) {
+        String undefined = node.getFirstTokenImage().startsWith("$!") ? "" : node.literal();
+        try {
+            StringWriter writer = new StringWriter();
+            node.render(new InternalContextAdapterImpl(new VelocityContext()), writer);
+            return !undefined.equals(writer.toString());
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static boolean isNativeSet(Node node) {
+        if (node.jjtGetNumChildren() != 2 || !(node.jjtGetChild(0) instanceof ASTReference)) {
+            return false;
+        }
+        ASTReference left = (ASTReference) node.jjtGetChild(0);
+        return left.jjtGetNumChildren() == 0 && isNativeReference(left);
+    }
+
+    private static boolean isNativeIf(Node node) {
+        if (node.jjtGetNumChildren() < 2 || !(node.jjtGetChild(1) instanceof ASTBlock)) {
+            return false;
+        }
+        for (int i = 2; i < node.jjtGetNumChildren(); i++) {
+            Node clause = node.jjtGetChild(i);
+            boolean elseIf = clause instanceof ASTElseIfStatement && clause.jjtGetNumChildren() == 2
+                    && clause.jjtGetChild(1) instanceof ASTBlock;
+            boolean otherwise = clause instanceof ASTElseStatement && clause.jjtGetNumChildren() == 1
+                    && clause.jjtGetChild(0) instanceof ASTBlock && i == node.jjtGetNumChildren() - 1;
+            if (!elseIf && !otherwise) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A #foreach runs as Java code only when nothing inside it can observe the $foreach scope or break the loop
+     */
+    private static boolean isNativeForeach(ASTDirective node) {
+        return FOREACH.equals(node.getDirectiveName()) && node.jjtGetNumChildren() == 4
+                && node.jjtGetChild(0) instanceof ASTReference && node.jjtGetChild(0).jjtGetNumChildren() == 0
+                && node.jjtGetChild(3) instanceof ASTBlock
+                && !usesLoopControl(node.jjtGetChild(2)) && !usesLoopControl(node.jjtGetChild(3));
+    }
+
+    private static boolean usesLoopControl(Node node) {
+        if (node instanceof ASTDirective && !FOREACH.equals(((ASTDirective) node).getDirectiveName())) {
+            return true;
+        }
+        if (node instanceof ASTReference && FOREACH.equals(((ASTReference) node).getRootString())) {
+            return true;
+        }
+        if (node instanceof ASTStringLiteral && isInterpolated(node)) {
+            return true;
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            if (usesLoopControl(node.jjtGetChild(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Java expression of a literal, evaluated at build time, or null when the node is not a literal
+     */
+    private static String constant(Node node) {
+        if (!(node instanceof ASTTrue || node instanceof ASTFalse || node instanceof ASTIntegerLiteral
+                || node instanceof ASTFloatingPointLiteral || (node instanceof ASTStringLiteral && !isInterpolated(node)))) {
+            return null;
+        }
+        Object value;
+        try {
+            value = node.value(null);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "Boolean.TRUE" : "Boolean.FALSE";
+        }
+        if (value instanceof String) {
+            return literal((String) value);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Double) {
+            return value.getClass().getSimpleName() + ".valueOf(" + literal(value.toString()) + ")";
+        }
+        if (value instanceof BigInteger || value instanceof BigDecimal) {
+            return "new " + value.getClass().getName() + "(" + literal(value.toString()) + ")";
+        }
+        return null;
+    }
+
+    private static boolean isInterpolated(Node node) {
+        String image = node.literal();
+        return image != null && image.startsWith("\"") && (image.indexOf('$') != -1 || image.indexOf('#') != -1);
+    }
+
+    /**
+     * Output of a node that doesn't depend on the context, or null when it can't be rendered without one
+     */
+    private static String staticText(Node node) {
+        try {
+            StringWriter writer = new StringWriter();
+            node.render(null, writer);
+            return writer.toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static StringBuilder renderMethod(String name, StringBuilder body) {
+        return new StringBuilder()
+                .append("    private void ").append(name).append("(InternalContextAdapter context, Writer writer) throws IOException {\n")
+                .append(body)
+                .append("    }\n");
+    }
+
+    private static int[] child(int[] path, int index) {
+        int[] childPath = new int[path.length + 1];
+        System.arraycopy(path, 0, childPath, 0, path.length);
+        childPath[path.length] = index;
+        return childPath;
+    }
+
+    private static String pathArguments(int[] path) {
+        StringBuilder arguments = new StringBuilder();
+        for (int index : path) {
+            arguments.append(", ").append(index);
+        }
+        return arguments.toString();
+    }
+
+    private static String indent(int depth) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            indent.append("    ");
+        }
+        return indent.toString();
+    }
+
+    static String literal(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+}
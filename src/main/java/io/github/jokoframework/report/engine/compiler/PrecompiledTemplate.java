@@ -0,0 +1,51 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.RuntimeServices;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Template rendered only by a {@link AbstractCompiledTemplate#isSelfContained() self-contained} compiled class.
+ * The template source is never parsed, so {@link #getData()} returns null.
+ */
+public class PrecompiledTemplate extends Template {
+
+    private final AbstractCompiledTemplate compiled;
+
+    /**
+     * @param templatePath
+     * @param compiled        a self-contained instance, not bound yet
+     * @param runtimeServices
+     */
+    PrecompiledTemplate(String templatePath, AbstractCompiledTemplate compiled, RuntimeServices runtimeServices) {
+        setName(templatePath);
+        setRuntimeServices(runtimeServices);
+        this.compiled = compiled;
+    }
+
+    public AbstractCompiledTemplate getCompiled() {
+        return compiled;
+    }
+
+    @Override
+    public boolean process() {
+        return true;
+    }
+
+    @Override
+    public void merge(Context context, Writer writer, List<String> macroLibraries) {
+        if (macroLibraries != null && !macroLibraries.isEmpty()) {
+            throw new VelocityException("Template '" + getName() + "' is precompiled and can't use macro libraries");
+        }
+        try {
+            compiled.merge(context, writer);
+        } catch (IOException e) {
+            throw new VelocityException("IO Error rendering template '" + getName() + "'", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles a generated render class in memory with the system java compiler, which is only present when the
+ * application runs on a JDK. The class path given to the compiler is the one of the JVM plus the directories and
+ * jar files of the class loader of this library.
+ */
+final class RuntimeJavaCompiler {
+
+    private RuntimeJavaCompiler() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Compiles the source of a single top level class without nested classes
+     *
+     * @param className
+     * @param source
+     * @return the bytecode of the class
+     * @throws IOException when there is no compiler or the source doesn't compile
+     */
+    static byte[] compile(String className, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("No java compiler available, the application is not running on a JDK");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+        try (JavaFileManager fileManager = new MemoryFileManager(standardManager, outputs)) {
+            JavaFileObject unit = new SourceFile(className, source);
+            boolean success = compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-classpath", classPath(), "-proc:none", "-nowarn", "-encoding", "UTF-8"),
+                    null, Collections.singletonList(unit)).call();
+            if (!success) {
+                StringBuilder errors = new StringBuilder();
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        errors.append(diagnostic.getMessage(null)).append('\n');
+                    }
+                }
+                throw new IOException("Class " + className + " can't be compiled: " + errors);
+            }
+        }
+        ByteArrayOutputStream bytecode = outputs.get(className);
+        if (bytecode == null || outputs.size() != 1) {
+            throw new IOException("Class " + className + " compiled to unexpected classes " + outputs.keySet());
+        }
+        return bytecode.toByteArray();
+    }
+
+    private static String classPath() {
+        Set<String> entries = new LinkedHashSet<>(Arrays.asList(System.getProperty("java.class.path", "").split(File.pathSeparator)));
+        for (ClassLoader loader = RuntimeJavaCompiler.class.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            entries.add(new File(url.toURI()).getPath());
+                        } catch (URISyntaxException | IllegalArgumentException e) {
+                            // not a local file, the compiler can't read it
+                        }
+                    }
+                }
+            }
+        }
+        entries.remove("");
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytecode;
+
+        private ClassFile(String className, ByteArrayOutputStream bytecode) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytecode;
+        }
+    }
+
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, ByteArrayOutputStream> outputs;
+
+        private MemoryFileManager(StandardJavaFileManager fileManager, Map<String, ByteArrayOutputStream> outputs) {
+            super(fileManager);
+            this.outputs = outputs;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+            outputs.put(className, bytecode);
+            return new ClassFile(className, bytecode);
+        }
+    }
+}
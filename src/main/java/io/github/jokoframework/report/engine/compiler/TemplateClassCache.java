@@ -0,0 +1,263 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local directory with the render classes of the templates that were not compiled at build time.
+ * <p>
+ * The first time the engine parses such a template, its class is generated from the parsed AST and compiled in
+ * the background, and the bytecode is saved as <strong>{dir}/v1/{source hash}/{class name}.class</strong>. Later
+ * starts of the application load the class from the directory, and when the class is self-contained the template
+ * source is not even parsed. A change of the template source changes its hash, so stale classes are never used.
+ * <p>
+ * Generating classes requires a JDK with the application classes in plain jar files or directories, otherwise
+ * the cache only serves the classes already present in the directory.
+ * <p>
+ * The bytecode is only loaded when it matches the signature saved next to it in
+ * <strong>{class name}.class.sig</strong>: an HMAC-SHA256 with the configured key, or a SHA-256 checksum that only
+ * detects corrupted files when there is no key. On POSIX file systems the directory, its subdirectories and the
+ * files must be owned by the user running the application and not be writable by other users, otherwise the cache
+ * is not used.
+ */
+public class TemplateClassCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateClassCache.class);
+    static final String FORMAT_VERSION = "v1";
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String SIGNATURE_EXTENSION = ".sig";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String USER = System.getProperty("user.name");
+
+    private final Path root;
+    private final Path directory;
+    private final SecretKeySpec key;
+    private final Set<String> requested = ConcurrentHashMap.newKeySet();
+    private volatile ExecutorService executor;
+    private volatile boolean compilerAvailable = true;
+
+    public TemplateClassCache(Path directory) {
+        this(directory, null);
+    }
+
+    /**
+     * @param directory
+     * @param key       secret used to sign the classes, null to only check them with a checksum
+     */
+    public TemplateClassCache(Path directory, String key) {
+        this.root = directory;
+        this.directory = directory.resolve(FORMAT_VERSION);
+        this.key = key != null && !key.isEmpty()
+                ? new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM) : null;
+    }
+
+    /**
+     * Loads the cached class of a template source
+     *
+     * @param className
+     * @param sourceHash
+     * @return the class or null when it is not cached
+     */
+    public Class<? extends AbstractCompiledTemplate> load(String className, String sourceHash) {
+        Path file = classFile(className, sourceHash);
+        byte[] bytecode;
+        try {
+            bytecode = Files.readAllBytes(file);
+            if (!isTrusted(file)) {
+                return null;
+            }
+            byte[] signature = Base64.getDecoder().decode(Files.readAllBytes(signatureFile(file)));
+            if (!MessageDigest.isEqual(signature, sign(bytecode))) {
+                LOGGER.warn("Cached class {} doesn't match its signature, it is not loaded", file);
+                return null;
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Cached class {} can't be read: {}", className, e.getMessage());
+            return null;
+        }
+        try {
+            return new CachedClassLoader().define(className, bytecode).asSubclass(AbstractCompiledTemplate.class);
+        } catch (LinkageError | ClassCastException e) {
+            LOGGER.warn("Cached class {} can't be loaded: {}", className, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Generates and compiles the class of a parsed template in a background thread, once per source. When the class
+     * can't be compiled or saved the template keeps being rendered by the engine, a failure of the generator is not
+     * caught
+     *
+     * @param template   template parsed by an engine supported by the generated code
+     * @param sourceHash hash of the template source
+     */
+    public void storeLater(Template template, String sourceHash) {
+        if (!compilerAvailable || !requested.add(sourceHash + template.getName())) {
+            return;
+        }
+        executor().execute(() -> {
+            try {
+                store(template, sourceHash);
+            } catch (IOException e) {
+                LOGGER.warn("Class of template {} can't be cached: {}", template.getName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Generates and compiles the class of a parsed template, and saves it in the directory
+     *
+     * @param template   template parsed by an engine supported by the generated code
+     * @param sourceHash hash of the template source
+     * @return the saved class file
+     */
+    public Path store(Template template, String sourceHash) throws IOException {
+        if (!RuntimeJavaCompiler.isAvailable()) {
+            compilerAvailable = false;
+            LOGGER.info("No java compiler available, the template class cache in {} is read only", directory);
+            throw new IOException("No java compiler available");
+        }
+        long start = System.nanoTime();
+        JavaTemplateGenerator generator = new JavaTemplateGenerator(template.getName(), sourceHash);
+        String source = generator.generate((Node) template.getData());
+        byte[] bytecode = RuntimeJavaCompiler.compile(generator.getClassName(), source);
+
+        Path file = classFile(generator.getClassName(), sourceHash);
+        if (isPosix()) {
+            Files.createDirectories(file.getParent(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(file.getParent());
+        }
+        if (!isTrusted(file.getParent())) {
+            throw new IOException("Template class cache " + file.getParent() + " is writable by other users");
+        }
+        write(signatureFile(file), Base64.getEncoder().encode(sign(bytecode)));
+        write(file, bytecode);
+        LOGGER.debug("Class of template {} cached in {} ({} ms, {} delegated nodes)", template.getName(), file,
+                (System.nanoTime() - start) / 1_000_000, generator.getDelegatedNodes());
+        return file;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path classFile(String className, String sourceHash) {
+        return directory.resolve(sourceHash).resolve(className + CLASS_EXTENSION);
+    }
+
+    private static Path signatureFile(Path classFile) {
+        return classFile.resolveSibling(classFile.getFileName() + SIGNATURE_EXTENSION);
+    }
+
+    /**
+     * Replaces the file atomically, so it is never read half written
+     */
+    private static void write(Path file, byte[] content) throws IOException {
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, content);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return the HMAC of the bytecode with the key, or its SHA-256 checksum when there is no key
+     */
+    private byte[] sign(byte[] bytecode) throws IOException {
+        try {
+            if (key == null) {
+                return MessageDigest.getInstance("SHA-256").digest(bytecode);
+            }
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(bytecode);
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private boolean isPosix() {
+        return root.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * Whether the path and its parents up to the cache directory are owned by the user of the application and can't
+     * be written by other users. Always true on file systems without POSIX permissions
+     */
+    private boolean isTrusted(Path path) throws IOException {
+        if (!isPosix()) {
+            return true;
+        }
+        for (Path current = path; current != null && current.startsWith(root); current = current.getParent()) {
+            PosixFileAttributes attributes = Files.getFileAttributeView(current, PosixFileAttributeView.class).readAttributes();
+            Set<PosixFilePermission> permissions = attributes.permissions();
+            if (!attributes.owner().getName().equals(USER) || permissions.contains(PosixFilePermission.GROUP_WRITE)
+                    || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                LOGGER.warn("Template class cache {} is not used, it must be owned by {} and not be writable by other users",
+                        current, USER);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "joko-report-template-cache");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * One loader per class, so a template whose source changes can be loaded again with the same class name
+     */
+    private static final class CachedClassLoader extends ClassLoader {
+        private CachedClassLoader() {
+            super(AbstractCompiledTemplate.class.getClassLoader());
+        }
+
+        private Class<?> define(String className, byte[] bytecode) {
+            return defineClass(className, bytecode, 0, bytecode.length);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Naming rules shared by the {@link TemplateCompiler} and the runtime lookup of the generated render classes.
+ * A template at <strong>reports/sub-dir/invoice.vm</strong> is compiled to
+ * <strong>io.github.jokoframework.report.templates.reports.sub_dir.Invoice_vm</strong>.
+ */
+public final class TemplateClassNames {
+
+    public static final String BASE_PACKAGE = "io.github.jokoframework.report.templates";
+
+    private TemplateClassNames() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Retrieves the fully qualified name of the class generated for a template
+     *
+     * @param templatePath classpath location of the .vm file, with or without leading slash
+     * @return
+     */
+    public static String classNameFor(String templatePath) {
+        String[] segments = normalize(templatePath).split("/");
+        StringBuilder className = new StringBuilder(BASE_PACKAGE);
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (!segments[i].isEmpty()) {
+                className.append('.').append(identifier(segments[i]));
+            }
+        }
+        String simpleName = identifier(segments[segments.length - 1]);
+        className.append('.').append(Character.toUpperCase(simpleName.charAt(0))).append(simpleName.substring(1));
+        return className.toString();
+    }
+
+    /**
+     * Removes the leading slash and converts windows separators, the way the classpath resource loader does
+     *
+     * @param templatePath
+     * @return
+     */
+    public static String normalize(String templatePath) {
+        String path = templatePath.replace('\\', '/');
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return path;
+    }
+
+    private static String identifier(String segment) {
+        StringBuilder identifier = new StringBuilder(segment.length() + 1);
+        for (char c : segment.toCharArray()) {
+            identifier.append(Character.isLetterOrDigit(c) && c < 128 ? c : '_');
+        }
+        if (identifier.length() == 0 || Character.isDigit(identifier.charAt(0))
+                || SourceVersion.isKeyword(identifier)) {
+            identifier.insert(0, '_');
+        }
+        return identifier.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.apache.velocity.runtime.resource.loader.FileResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build time compiler of the .vm templates into Java render classes, see {@link AbstractCompiledTemplate}.
+ * It is run by the <strong>generateTemplateSources</strong> gradle task:
+ * <pre>
+ * java io.github.jokoframework.report.engine.compiler.TemplateCompiler src/main/resources build/generated/sources/templates/main
+ * </pre>
+ * Templates are parsed with the same parser settings used by the report engine. At runtime a generated class is
+ * only used when its template source hash matches the template found in the classpath, otherwise the template is
+ * interpreted as usual.
+ */
+public final class TemplateCompiler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateCompiler.class);
+    private static final String TEMPLATE_EXTENSION = ".vm";
+    private static final String FILE_LOADER = "file";
+    private static final String FILE_LOADER_PREFIX = "resource.loader." + FILE_LOADER + ".";
+
+    private final VelocityEngine velocityEngine;
+    private final Path templatesDir;
+
+    public TemplateCompiler(Path templatesDir) {
+        this.templatesDir = templatesDir;
+        this.velocityEngine = new VelocityEngine();
+        velocityEngine.setProperty(RuntimeConstants.RESOURCE_LOADERS, FILE_LOADER);
+        velocityEngine.setProperty(FILE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_CLASS, FileResourceLoader.class.getName());
+        velocityEngine.setProperty(FILE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_PATHS, templatesDir.toAbsolutePath().toString());
+        velocityEngine.setProperty(FILE_LOADER_PREFIX + RuntimeConstants.RESOURCE_LOADER_CACHE, false);
+        velocityEngine.init();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: TemplateCompiler <templates dir> <output dir>");
+        }
+        Path templatesDir = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+        int compiled = new TemplateCompiler(templatesDir).compileAll(outputDir);
+        LOGGER.info("{} templates compiled from {} into {}", compiled, templatesDir, outputDir);
+    }
+
+    /**
+     * Compiles every .vm file under the templates dir, writing the generated sources into the output dir
+     *
+     * @param outputDir
+     * @return number of compiled templates
+     */
+    public int compileAll(Path outputDir) throws IOException {
+        if (!Files.isDirectory(templatesDir)) {
+            return 0;
+        }
+        List<Path> templates;
+        try (Stream<Path> files = Files.walk(templatesDir)) {
+            templates = files.filter(file -> file.toString().endsWith(TEMPLATE_EXTENSION) && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : templates) {
+            String templatePath = templatesDir.relativize(file).toString().replace('\\', '/');
+            compile(templatePath, outputDir);
+        }
+        return templates.size();
+    }
+
+    /**
+     * Compiles a template, writing the generated source into the output dir
+     *
+     * @param templatePath path relative to the templates dir
+     * @param outputDir
+     * @return the generated source file
+     */
+    public Path compile(String templatePath, Path outputDir) throws IOException {
+        Path sourceFile = templatesDir.resolve(templatePath);
+        String sourceHash = TemplateSources.hash(Files.readAllBytes(sourceFile));
+        Template template = velocityEngine.getTemplate(templatePath, StandardCharsets.UTF_8.name());
+        JavaTemplateGenerator generator = new JavaTemplateGenerator(templatePath, sourceHash);
+        String source = generator.generate((Node) template.getData());
+
+        Path outputFile = outputDir.resolve(generator.getClassName().replace('.', '/') + ".java");
+        Files.createDirectories(outputFile.getParent());
+        Files.write(outputFile, source.getBytes(StandardCharsets.UTF_8));
+        LOGGER.info("Compiled {} into {}: {} nodes as Java code, {} delegated to the engine", templatePath,
+                generator.getClassName(), generator.getNativeNodes(), generator.getDelegatedNodes());
+        return outputFile;
+    }
+}
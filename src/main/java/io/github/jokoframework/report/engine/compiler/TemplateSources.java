@@ -0,0 +1,71 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Access to the raw source of the templates, used to tell whether a generated class was compiled from the same
+ * content that the engine parsed
+ */
+public final class TemplateSources {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TemplateSources() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Reads a template from the classpath, looking first at the thread context class loader like the velocity
+     * classpath resource loader does
+     *
+     * @param templatePath
+     * @return the template bytes or null when it doesn't exist
+     */
+    public static byte[] read(String templatePath) throws IOException {
+        String path = TemplateClassNames.normalize(templatePath);
+        InputStream inputStream = null;
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader != null) {
+            inputStream = contextClassLoader.getResourceAsStream(path);
+        }
+        if (inputStream == null) {
+            inputStream = TemplateSources.class.getClassLoader().getResourceAsStream(path);
+        }
+        if (inputStream == null) {
+            return null;
+        }
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * SHA-256 of the given content as lower case hex
+     *
+     * @param content
+     * @return
+     */
+    public static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
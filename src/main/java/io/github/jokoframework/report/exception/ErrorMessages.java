@@ -5,4 +5,11 @@ public class ErrorMessages {
     public static final String PRINTER_SERVICES_NOT_FOUND_ERROR = "No printer services found in print server";
     public static final String PRINTER_SERVICE_NOT_FOUND_ERROR = "Printer with name ''{0}'' not found on server";
     public static final String PRINTER_ERROR = "An error occurred while printing";
+    public static final String REPORT_RENDER_ERROR = "An error occurred while rendering the report ''{0}''";
+    public static final String TEMPLATE_PRELOAD_ERROR = "Report templates could not be preloaded: {0}";
+    public static final String PDF_FONT_ERROR = "Pdf font ''{0}'' could not be loaded, the format is family[:weight[:style]]=location";
+    public static final String WEB_CLIENT_TIMEOUT_ERROR = "No web client was available to render the pdf after {0}ms";
+    public static final String PDF_QUEUE_FULL_ERROR = "Pdf rejected, {0} pdfs are already waiting to be rendered";
+    public static final String PDF_QUEUE_TIMEOUT_ERROR = "Pdf rejected after waiting {0}ms to be rendered";
+    public static final String PDF_MERGE_EMPTY_ERROR = "No documents to merge into the pdf";
 }
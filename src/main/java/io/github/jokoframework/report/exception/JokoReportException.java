@@ -32,4 +32,9 @@ public class JokoReportException extends Exception implements Serializable {
         this.params = params;
     }
 
+    public JokoReportException(Throwable cause, String errorMessage, Object... params) {
+        this(errorMessage, params);
+        this.initCause(cause);
+    }
+
 }
@@ -0,0 +1,17 @@
+package io.github.jokoframework.report.exception;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+/**
+ * Thrown when a pdf is not rendered because the renderer is already using the memory or the threads allowed for
+ * pdfs and the job could not wait for them, so callers can answer with a retry instead of an error
+ */
+public class PdfRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PdfRejectedException(String errorMessage, Object... params) {
+        super(MessageFormat.format(errorMessage, params));
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.jokoframework.report.pdf;
+
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Font metrics computed by openhtmltopdf, shared by every pdf so each font is measured once per JVM. Once it holds
+ * {@link #MAX_ENTRIES} fonts new metrics are computed on every request and not kept.
+ * <p>
+ * Hits and misses are published in the <strong>joko.report.pdf.font-metrics</strong> metric.
+ */
+final class FontMetricsCache implements FSCacheEx<String, FSCacheValue> {
+
+    static final String FONT_METRICS_COUNTER = "joko.report.pdf.font-metrics";
+    static final int MAX_ENTRIES = 256;
+
+    private final ConcurrentMap<String, FSCacheValue> metrics = new ConcurrentHashMap<>();
+    private final Counter hits = Counter.builder(FONT_METRICS_COUNTER).tag("result", "hit").register(Metrics.globalRegistry);
+    private final Counter misses = Counter.builder(FONT_METRICS_COUNTER).tag("result", "miss").register(Metrics.globalRegistry);
+
+    @Override
+    public void put(String key, FSCacheValue value) {
+        if (metrics.size() < MAX_ENTRIES) {
+            metrics.put(key, value);
+        }
+    }
+
+    @Override
+    public FSCacheValue get(String key, Callable<? extends FSCacheValue> loader) {
+        FSCacheValue value = get(key);
+        if (value == null) {
+            try {
+                value = loader.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("Font metrics " + key + " could not be computed", e);
+            }
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public FSCacheValue get(String key) {
+        FSCacheValue value = metrics.get(key);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.jokoframework.report.pdf;
+
+import com.gargoylesoftware.htmlunit.html.DomAttr;
+import com.gargoylesoftware.htmlunit.html.DomComment;
+import com.gargoylesoftware.htmlunit.html.DomElement;
+import com.gargoylesoftware.htmlunit.html.DomNode;
+import com.gargoylesoftware.htmlunit.html.DomText;
+import com.gargoylesoftware.htmlunit.html.HtmlElement;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.html.HtmlScript;
+import com.gargoylesoftware.htmlunit.html.HtmlStyle;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.TextNode;
+
+import java.util.Locale;
+
+/**
+ * Copies the page left by the scripts in the browser emulation node by node, instead of serializing it and parsing
+ * it again. Scripts are dropped, they already ran.
+ */
+final class HtmlPageConverter {
+
+    private HtmlPageConverter() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * @param page
+     * @param baseUri location of the document
+     * @return
+     */
+    static Document toJsoup(HtmlPage page, String baseUri) {
+        Document document = new Document(baseUri);
+        DomElement root = page.getDocumentElement();
+        if (root != null) {
+            document.appendChild(copy(root));
+        }
+        return document;
+    }
+
+    private static Element copy(DomElement source) {
+        String name = source.getNodeName();
+        Element target = new Element(source instanceof HtmlElement ? name.toLowerCase(Locale.ROOT) : name);
+        for (DomAttr attribute : source.getAttributesMap().values()) {
+            target.attr(attribute.getName(), attribute.getValue());
+        }
+        boolean data = source instanceof HtmlStyle;
+        for (DomNode child = source.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof HtmlScript) {
+                continue;
+            }
+            if (child instanceof DomElement) {
+                target.appendChild(copy((DomElement) child));
+            } else if (child instanceof DomText) {
+                String text = ((DomText) child).getData();
+                target.appendChild(data ? new DataNode(text) : new TextNode(text));
+            } else if (child instanceof DomComment) {
+                target.appendChild(new Comment(((DomComment) child).getData()));
+            }
+        }
+        return target;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.jokoframework.report.pdf;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Elements;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits an html document into documents of consecutive pages, so each range can be laid out on its own. The cuts
+ * are made at the children of the body that declare a page break in their <strong>style</strong> attribute
+ * (<strong>page-break-before: always</strong>, <strong>break-before: page</strong> and their <strong>after</strong>
+ * counterparts). Every range keeps a copy of the head, so the styles apply to all of them, and the
+ * <strong>bookmarks</strong> whose target is in the range, so the merged outline has every bookmark once.
+ */
+final class PageRanges {
+
+    private static final Pattern BREAK_BEFORE = Pattern.compile("(page-)?break-before\\s*:\\s*(always|page)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern BREAK_AFTER = Pattern.compile("(page-)?break-after\\s*:\\s*(always|page)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern PAGE_COUNTER = Pattern.compile("counter\\(\\s*pages?\\s*\\)");
+
+    private PageRanges() {
+        throw new IllegalStateException("Utility class. Not meant to be instantiated.");
+    }
+
+    /**
+     * Whether the html numbers its pages with <strong>counter(page)</strong> or <strong>counter(pages)</strong>,
+     * numbers that would restart on every range
+     */
+    static boolean hasPageCounters(String html) {
+        return PAGE_COUNTER.matcher(html).find();
+    }
+
+    /**
+     * Moves the content of the body into at most the given number of documents of similar size, each one made of
+     * whole sections between page breaks. The document is left empty.
+     *
+     * @return a single range, the document itself, when it has no page breaks
+     */
+    static List<Document> split(Document document, int ranges) {
+        List<List<Node>> sections = sections(document.body());
+        if (sections.size() < 2 || ranges < 2) {
+            return Collections.singletonList(document);
+        }
+        Elements bookmarks = document.select("bookmarks").remove();
+        long total = 0;
+        long[] sizes = new long[sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            for (Node node : sections.get(i)) {
+                sizes[i] += node.outerHtml().length();
+            }
+            total += sizes[i];
+        }
+        List<Document> documents = new ArrayList<>();
+        Document current = null;
+        long accumulated = 0;
+        for (int i = 0; i < sections.size(); i++) {
+            // A new range starts when the previous ones already hold their share of the total
+            if (current == null || accumulated * ranges >= total * documents.size()) {
+                current = emptyCopy(document);
+                documents.add(current);
+            }
+            for (Node node : sections.get(i)) {
+                // Skips the bookmarks already taken out of the body
+                if (node.parentNode() != null) {
+                    current.body().appendChild(node);
+                }
+            }
+            accumulated += sizes[i];
+        }
+        for (Document range : documents) {
+            removeBreak(range.body().children().first(), BREAK_BEFORE);
+            removeBreak(range.body().children().last(), BREAK_AFTER);
+            for (Element outline : bookmarks) {
+                range.head().appendChild(bookmarksOf(range, outline.clone()));
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Groups the children of the body, every group ends before a break or after an element that breaks after it
+     */
+    private static List<List<Node>> sections(Element body) {
+        List<List<Node>> sections = new ArrayList<>();
+        List<Node> section = new ArrayList<>();
+        for (Node node : new ArrayList<>(body.childNodes())) {
+            if (!section.isEmpty() && breaks(node, BREAK_BEFORE)) {
+                sections.add(section);
+                section = new ArrayList<>();
+            }
+            section.add(node);
+            if (breaks(node, BREAK_AFTER)) {
+                sections.add(section);
+                section = new ArrayList<>();
+            }
+        }
+        if (!section.isEmpty()) {
+            sections.add(section);
+        }
+        return sections;
+    }
+
+    private static boolean breaks(Node node, Pattern pattern) {
+        return node instanceof Element && pattern.matcher(node.attr("style")).find();
+    }
+
+    private static Document emptyCopy(Document document) {
+        Document copy = Document.createShell(document.location());
+        copy.outputSettings(document.outputSettings().clone());
+        for (Attribute attribute : document.child(0).attributes()) {
+            copy.child(0).attr(attribute.getKey(), attribute.getValue());
+        }
+        copy.head().replaceWith(document.head().clone());
+        for (Attribute attribute : document.body().attributes()) {
+            copy.body().attr(attribute.getKey(), attribute.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Removes the bookmarks that point to an element of another range and have no bookmarks left inside
+     */
+    private static Element bookmarksOf(Document range, Element outline) {
+        Elements entries = outline.select("bookmark");
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Element entry = entries.get(i);
+            String href = entry.attr("href");
+            boolean elsewhere = href.startsWith("#") && range.getElementById(href.substring(1)) == null;
+            if (elsewhere && entry.select("bookmark").size() == 1) {
+                entry.remove();
+            }
+        }
+        return outline;
+    }
+
+    /**
+     * A break before the first element or after the last one of a range would add a blank page between ranges
+     */
+    private static void removeBreak(Element element, Pattern pattern) {
+        if (element != null && breaks(element, pattern)) {
+            element.attr("style", pattern.matcher(element.attr("style")).replaceAll(""));
+        }
+    }
+}
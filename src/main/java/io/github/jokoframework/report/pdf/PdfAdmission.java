@@ -0,0 +1,178 @@
+package io.github.jokoframework.report.pdf;
+
+import io.github.jokoframework.report.exception.ErrorMessages;
+import io.github.jokoframework.report.exception.PdfRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control of the pdfs of a {@link PdfRenderer}. Each pdf is charged the memory its html is estimated to
+ * take while it is rendered (the html size by a cost factor) and runs only while the pdfs in flight stay below the
+ * max concurrency and the max bytes, the rest wait in order. A pdf is rejected with a {@link PdfRejectedException}
+ * when the queue is full or it waits longer than the queue timeout. A pdf estimated above the max bytes is charged
+ * the max bytes, so it runs alone.
+ * <p>
+ * The pdfs waiting and in flight and their bytes are published in the <strong>joko.report.pdf.admission.queued</strong>,
+ * <strong>joko.report.pdf.admission.active</strong> and <strong>joko.report.pdf.admission.bytes</strong> metrics,
+ * the time waited in <strong>joko.report.pdf.admission.wait</strong> and the rejected pdfs in
+ * <strong>joko.report.pdf.admission.rejected</strong> (tag <strong>reason</strong>).
+ */
+final class PdfAdmission {
+
+    static final String QUEUED_GAUGE = "joko.report.pdf.admission.queued";
+    static final String ACTIVE_GAUGE = "joko.report.pdf.admission.active";
+    static final String BYTES_GAUGE = "joko.report.pdf.admission.bytes";
+    static final String WAIT_TIMER = "joko.report.pdf.admission.wait";
+    static final String REJECTED_COUNTER = "joko.report.pdf.admission.rejected";
+    // Shared by every renderer, the pdfs of a replaced renderer still use memory until they finish
+    private static final AtomicLong QUEUED = new AtomicLong();
+    private static final AtomicLong ACTIVE = new AtomicLong();
+    private static final AtomicLong BYTES = new AtomicLong();
+
+    static {
+        Gauge.builder(QUEUED_GAUGE, QUEUED, AtomicLong::get)
+                .description("Pdfs waiting to be rendered")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(ACTIVE_GAUGE, ACTIVE, AtomicLong::get)
+                .description("Pdfs being rendered")
+                .register(Metrics.globalRegistry);
+        Gauge.builder(BYTES_GAUGE, BYTES, AtomicLong::get)
+                .description("Estimated bytes of the pdfs being rendered")
+                .register(Metrics.globalRegistry);
+    }
+
+    private final int maxConcurrent;
+    private final long maxBytes;
+    private final int maxQueued;
+    private final long queueTimeout;
+    private final int costFactor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Deque<Thread> queue = new ArrayDeque<>();
+    private int active;
+    private long bytes;
+    private final Timer waitTimer;
+    private final Counter queueFull;
+    private final Counter timedOut;
+
+    /**
+     * @param maxConcurrent max pdfs rendered at the same time
+     * @param maxBytes      max estimated bytes of the pdfs rendered at the same time
+     * @param maxQueued     max pdfs waiting, zero rejects every pdf that can not run immediately
+     * @param queueTimeout  milliseconds a pdf waits before being rejected
+     * @param costFactor    estimated bytes per character of html
+     */
+    PdfAdmission(int maxConcurrent, long maxBytes, int maxQueued, long queueTimeout, int costFactor) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxBytes = maxBytes;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+        this.costFactor = costFactor;
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Time a pdf waited to be rendered")
+                .register(Metrics.globalRegistry);
+        this.queueFull = Counter.builder(REJECTED_COUNTER).tag("reason", "queue-full").register(Metrics.globalRegistry);
+        this.timedOut = Counter.builder(REJECTED_COUNTER).tag("reason", "timeout").register(Metrics.globalRegistry);
+    }
+
+    /**
+     * @return the bytes charged to a pdf of the given html, at most the max bytes
+     */
+    long cost(String html) {
+        return cost(html.length());
+    }
+
+    /**
+     * @return the bytes charged to a pdf of html with the given number of characters, at most the max bytes
+     */
+    long cost(long characters) {
+        return Math.min(characters * costFactor, maxBytes);
+    }
+
+    /**
+     * Waits until the pdf can be rendered, the caller must {@link #release(long)} the same cost when it finishes
+     *
+     * @param cost bytes charged to the pdf, see {@link #cost(String)}
+     * @throws PdfRejectedException when the queue is full or the pdf waited longer than the queue timeout
+     */
+    void acquire(long cost) throws IOException {
+        long start = System.nanoTime();
+        Thread current = Thread.currentThread();
+        lock.lock();
+        try {
+            if (queue.isEmpty() && fits(cost)) {
+                admit(cost);
+                return;
+            }
+            if (queue.size() >= maxQueued) {
+                queueFull.increment();
+                throw new PdfRejectedException(ErrorMessages.PDF_QUEUE_FULL_ERROR, String.valueOf(queue.size()));
+            }
+            queue.addLast(current);
+            QUEUED.incrementAndGet();
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+                // Pdfs are admitted in arrival order, so a big pdf is not starved by smaller ones
+                while (queue.peekFirst() != current || !fits(cost)) {
+                    if (remaining <= 0) {
+                        timedOut.increment();
+                        throw new PdfRejectedException(ErrorMessages.PDF_QUEUE_TIMEOUT_ERROR, String.valueOf(queueTimeout));
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                admit(cost);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to render a pdf");
+            } finally {
+                queue.remove(current);
+                QUEUED.decrementAndGet();
+                // The next pdf in the queue may fit now
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns the cost of a finished pdf and wakes up the waiting ones
+     *
+     * @param cost
+     */
+    void release(long cost) {
+        lock.lock();
+        try {
+            active--;
+            bytes -= cost;
+            ACTIVE.decrementAndGet();
+            BYTES.addAndGet(-cost);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long cost) {
+        return active < maxConcurrent && (active == 0 || bytes + cost <= maxBytes);
+    }
+
+    private void admit(long cost) {
+        active++;
+        bytes += cost;
+        ACTIVE.incrementAndGet();
+        BYTES.addAndGet(cost);
+    }
+}
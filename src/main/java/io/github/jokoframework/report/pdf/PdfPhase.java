@@ -0,0 +1,55 @@
+package io.github.jokoframework.report.pdf;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phases of the generation of a pdf, the time spent in each one is published in the
+ * <strong>joko.report.pdf.phase</strong> metric with the phase name in the <strong>phase</strong> tag
+ */
+public enum PdfPhase {
+
+    /**
+     * Velocity merges the template with the report params into html
+     */
+    MERGE,
+    /**
+     * The html without scripts is parsed
+     */
+    PARSE,
+    /**
+     * The html with scripts is loaded in the browser emulation, its scripts run and the resulting page is copied
+     */
+    JAVASCRIPT,
+    /**
+     * The parsed html is converted to the document openhtmltopdf lays out
+     */
+    DOM,
+    /**
+     * openhtmltopdf lays out the document and writes the pdf
+     */
+    LAYOUT,
+    /**
+     * The pdfs of the page ranges rendered in parallel are joined
+     */
+    JOIN;
+
+    public static final String PHASE_TIMER = "joko.report.pdf.phase";
+
+    private final Timer timer = Timer.builder(PHASE_TIMER)
+            .description("Time spent in each phase of the generation of a pdf")
+            .tag("phase", name().toLowerCase(Locale.ROOT))
+            .register(Metrics.globalRegistry);
+
+    /**
+     * Records the time elapsed since the given start
+     *
+     * @param start value of {@link System#nanoTime()} when the phase started
+     */
+    public void record(long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.jokoframework.report.pdf;
+
+/**
+ * How the html of a report is turned into the document laid out as pdf
+ */
+public enum PdfRenderMode {
+    /**
+     * {@link #JAVASCRIPT} when the html has a <strong>&lt;script&gt;</strong> element, an event handler attribute
+     * such as <strong>onload</strong> or a <strong>javascript:</strong> url, {@link #DIRECT} otherwise
+     */
+    AUTO,
+    /**
+     * Parses the html once and lays it out as is, scripts are ignored
+     */
+    DIRECT,
+    /**
+     * Loads the html in the HtmlUnit browser emulation, running its scripts, and lays out the resulting page
+     */
+    JAVASCRIPT
+}
@@ -0,0 +1,545 @@
+package io.github.jokoframework.report.pdf;
+
+import com.gargoylesoftware.htmlunit.StringWebResponse;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+import com.gargoylesoftware.htmlunit.util.UrlUtils;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.github.jokoframework.report.exception.ErrorMessages;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the html output of a report to pdf. Html without scripts is parsed once and laid out directly, html with
+ * scripts is handed to the browser emulation from memory (see {@link PdfRenderMode}). Relative links are resolved
+ * against the base URI of the {@link PdfSettings}.
+ * <p>
+ * Pdfs are rendered under admission control: each one is charged the memory estimated from the size of its html and
+ * waits, or is rejected with a {@link io.github.jokoframework.report.exception.PdfRejectedException}, when the pdfs
+ * in flight already use the memory or the concurrency allowed by the settings. Html above the large document
+ * threshold is rendered with the pdf built in a PDFBox scratch file instead of the heap.
+ */
+public final class PdfRenderer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PdfRenderer.class);
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    // A script element, an event handler attribute such as onload= or a javascript: url in an attribute
+    private static final Pattern SCRIPTS = Pattern.compile(
+            "<script|<[a-z][^>]*\\son[a-z]+\\s*=|=\\s*[\"']?\\s*javascript:", Pattern.CASE_INSENSITIVE);
+    private static final String TEMP_FILE_PREFIX = "joko-report-";
+    private static final Pattern URI_SCHEME = Pattern.compile("[a-zA-Z][a-zA-Z0-9+.-]+:");
+
+    private static volatile PdfRenderer instance;
+
+    private final PdfSettings settings;
+    private final String baseUri;
+    private final WebClientPool webClients;
+    private final PdfResources resources;
+    private final ForkJoinPool rangePool;
+    private final PdfAdmission admission;
+
+    private PdfRenderer(PdfSettings settings) {
+        this.settings = settings;
+        this.baseUri = resolveBaseUri(settings.getBaseUri());
+        int poolSize = settings.getWebClientPoolSize() > 0 ? settings.getWebClientPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+        this.webClients = new WebClientPool(poolSize, settings.getWebClientBorrowTimeout());
+        this.resources = new PdfResources(settings.getFonts(), settings.getResourceCacheMaxBytes(),
+                settings.getResourceCacheTtl());
+        this.rangePool = new ForkJoinPool(settings.getParallelism() > 0 ? settings.getParallelism()
+                : Runtime.getRuntime().availableProcessors());
+        int maxConcurrent = settings.getAdmissionMaxConcurrent() > 0 ? settings.getAdmissionMaxConcurrent()
+                : Runtime.getRuntime().availableProcessors();
+        long maxBytes = settings.getAdmissionMaxBytes() > 0 ? settings.getAdmissionMaxBytes()
+                : Runtime.getRuntime().maxMemory() / 4;
+        this.admission = new PdfAdmission(maxConcurrent, maxBytes, settings.getAdmissionMaxQueued(),
+                settings.getAdmissionQueueTimeout(), settings.getAdmissionCostFactor());
+    }
+
+    /**
+     * Retrieves the shared renderer, initializing it with the default settings when it was not configured yet
+     *
+     * @return
+     */
+    public static PdfRenderer getInstance() {
+        PdfRenderer renderer = instance;
+        if (renderer == null) {
+            synchronized (PdfRenderer.class) {
+                renderer = instance;
+                if (renderer == null) {
+                    renderer = new PdfRenderer(new PdfSettings());
+                    instance = renderer;
+                }
+            }
+        }
+        return renderer;
+    }
+
+    /**
+     * Replaces the shared renderer with a new one initialized with the given settings, warming up its web clients
+     * when the settings say so. The web clients of the previous renderer are closed as they are released and its
+     * cached resources are discarded.
+     *
+     * @param settings
+     * @return the new shared renderer
+     */
+    public static synchronized PdfRenderer configure(PdfSettings settings) {
+        PdfRenderer renderer = new PdfRenderer(settings);
+        if (settings.isWebClientWarmUp()) {
+            renderer.webClients.warmUp();
+        }
+        if (instance != null) {
+            instance.close();
+        }
+        instance = renderer;
+        return instance;
+    }
+
+    /**
+     * Converts the html to pdf resolving relative links against the configured base URI
+     *
+     * @param html
+     * @param outputStream receives the pdf, it is not closed
+     */
+    public void render(String html, OutputStream outputStream) throws IOException {
+        admitAndRender(html, baseUri, settings.getRenderMode(), false, outputStream);
+    }
+
+    /**
+     * Converts the html to pdf resolving relative links against the given base URI
+     *
+     * @param html
+     * @param baseUri      null leaves relative links unresolved
+     * @param outputStream receives the pdf, it is not closed
+     */
+    public void render(String html, String baseUri, OutputStream outputStream) throws IOException {
+        render(html, baseUri, settings.getRenderMode(), outputStream);
+    }
+
+    /**
+     * Converts the html to pdf resolving relative links against the given base URI, loading it as the given mode
+     * says
+     *
+     * @param html
+     * @param baseUri      null leaves relative links unresolved
+     * @param mode
+     * @param outputStream receives the pdf, it is not closed
+     */
+    public void render(String html, String baseUri, PdfRenderMode mode, OutputStream outputStream) throws IOException {
+        admitAndRender(html, resolveBaseUri(baseUri), mode, false, outputStream);
+    }
+
+    /**
+     * Converts the html to pdf resolving relative links against the configured base URI, laying out the ranges of
+     * pages between the page breaks of the html at the same time
+     *
+     * @param html
+     * @param outputStream receives the pdf, it is not closed
+     * @see #renderInParallel(String, String, PdfRenderMode, OutputStream)
+     */
+    public void renderInParallel(String html, OutputStream outputStream) throws IOException {
+        admitAndRender(html, baseUri, settings.getRenderMode(), true, outputStream);
+    }
+
+    /**
+     * Converts the html to pdf laying out the ranges of pages between its page breaks at the same time, up to the
+     * configured parallelism, and merging them in order. Only the children of the body with a
+     * <strong>page-break-before</strong>, <strong>page-break-after</strong>, <strong>break-before</strong> or
+     * <strong>break-after</strong> declared in their <strong>style</strong> attribute start a new range.
+     * <p>
+     * Html without page breaks or numbering its pages with <strong>counter(page)</strong> or
+     * <strong>counter(pages)</strong> is rendered in a single pass, as {@link #render(String, String, PdfRenderMode,
+     * OutputStream)} does. Links between ranges are not kept.
+     *
+     * @param html
+     * @param baseUri      null leaves relative links unresolved
+     * @param mode
+     * @param outputStream receives the pdf, it is not closed
+     */
+    public void renderInParallel(String html, String baseUri, PdfRenderMode mode, OutputStream outputStream)
+            throws IOException {
+        admitAndRender(html, resolveBaseUri(baseUri), mode, true, outputStream);
+    }
+
+    /**
+     * Renders the pdf once the admission control lets it in
+     */
+    private void admitAndRender(String html, String baseUri, PdfRenderMode mode, boolean inParallel,
+                                OutputStream outputStream) throws IOException {
+        long cost = admission.cost(html);
+        boolean large = isLarge(html.length());
+        admission.acquire(cost);
+        try {
+            if (inParallel) {
+                renderRanges(html, baseUri, mode, large, outputStream);
+            } else {
+                write(load(html, baseUri, mode), baseUri, large, outputStream);
+            }
+        } finally {
+            admission.release(cost);
+        }
+    }
+
+    private void renderRanges(String html, String baseUri, PdfRenderMode mode, boolean large,
+                              OutputStream outputStream) throws IOException {
+        Document document = load(html, baseUri, mode);
+        List<Document> ranges = PageRanges.hasPageCounters(html) ? Collections.singletonList(document)
+                : PageRanges.split(document, rangePool.getParallelism());
+        if (ranges.size() == 1) {
+            write(document, baseUri, large, outputStream);
+            return;
+        }
+        mergeRanges(ranges, large, (range, buffer) -> write(range, baseUri, large, buffer), outputStream);
+    }
+
+    /**
+     * Writes the ranges at the same time into buffers and merges them in order. When a range fails, the ranges not
+     * started yet are skipped and the running ones are waited for before the buffers are discarded.
+     */
+    void mergeRanges(List<Document> ranges, boolean large, RangeWriter writer, OutputStream outputStream)
+            throws IOException {
+        List<SpillingOutputStream> buffers = new ArrayList<>(ranges.size());
+        List<ForkJoinTask<SpillingOutputStream>> tasks = new ArrayList<>(ranges.size());
+        AtomicBoolean cancelled = new AtomicBoolean();
+        try {
+            for (Document range : ranges) {
+                SpillingOutputStream buffer = new SpillingOutputStream(settings.getOutputSpillThreshold());
+                buffers.add(buffer);
+                tasks.add(rangePool.submit(() -> {
+                    if (!cancelled.get()) {
+                        writer.write(range, new CloseShieldOutputStream(buffer));
+                    }
+                    return buffer;
+                }));
+            }
+            PDFMergerUtility merger = new PDFMergerUtility();
+            for (ForkJoinTask<SpillingOutputStream> task : tasks) {
+                merger.addSource(join(task).toInputStream());
+            }
+            long start = System.nanoTime();
+            merger.setDestinationStream(new CloseShieldOutputStream(outputStream));
+            merger.mergeDocuments(large ? MemoryUsageSetting.setupTempFileOnly() : MemoryUsageSetting.setupMainMemoryOnly());
+            PdfPhase.JOIN.record(start);
+        } finally {
+            cancelled.set(true);
+            // Running ranges can't be stopped and the buffers are not thread-safe, they are closed once nothing writes to them
+            for (ForkJoinTask<SpillingOutputStream> task : tasks) {
+                task.quietlyJoin();
+            }
+            for (SpillingOutputStream buffer : buffers) {
+                buffer.close();
+            }
+        }
+    }
+
+    /**
+     * Converts many html documents, usually the same template with different params, into a single pdf. The
+     * documents are laid out in chunks of the configured bulk chunk size, one after the other in new pages, so each
+     * font subset and image is embedded once per chunk instead of once per document. The chunks are kept in
+     * temporary files and joined with a temporary scratch file, so the heap used does not grow with the number of
+     * documents.
+     * <p>
+     * Documents numbering their pages with <strong>counter(page)</strong> or <strong>counter(pages)</strong> are
+     * laid out one by one, so each one keeps its own numbers.
+     *
+     * @param htmls        the documents, consumed as the chunks are rendered
+     * @param outputStream receives the pdf, it is not closed
+     * @throws IllegalArgumentException when there are no documents, nothing is written
+     */
+    public void renderMerged(Iterator<String> htmls, OutputStream outputStream) throws IOException {
+        if (!htmls.hasNext()) {
+            throw new IllegalArgumentException(ErrorMessages.PDF_MERGE_EMPTY_ERROR);
+        }
+        List<File> chunks = new ArrayList<>();
+        try {
+            PDFMergerUtility merger = new PDFMergerUtility();
+            List<String> chunk = new ArrayList<>();
+            while (htmls.hasNext()) {
+                String html = htmls.next();
+                boolean pageCounters = PageRanges.hasPageCounters(html);
+                if (pageCounters && !chunk.isEmpty()) {
+                    merger.addSource(renderChunk(chunk, chunks));
+                }
+                chunk.add(html);
+                if (pageCounters || chunk.size() >= settings.getBulkChunkSize() || !htmls.hasNext()) {
+                    merger.addSource(renderChunk(chunk, chunks));
+                }
+            }
+            long start = System.nanoTime();
+            merger.setDestinationStream(new CloseShieldOutputStream(outputStream));
+            merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+            PdfPhase.JOIN.record(start);
+        } finally {
+            for (File file : chunks) {
+                if (!file.delete()) {
+                    LOGGER.warn("Pdf chunk {} could not be deleted", file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lays out the documents together into a new temporary file and empties the list
+     *
+     * @param files the temporary files of the previous chunks, the new file is added to them
+     * @return the new file
+     */
+    private File renderChunk(List<String> htmls, List<File> files) throws IOException {
+        File file = File.createTempFile(TEMP_FILE_PREFIX, ".pdf");
+        files.add(file);
+        long characters = 0;
+        for (String html : htmls) {
+            characters += html.length();
+        }
+        long cost = admission.cost(characters);
+        admission.acquire(cost);
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+            Document chunk = null;
+            for (String html : htmls) {
+                Document document = load(html, baseUri, settings.getRenderMode());
+                if (chunk == null) {
+                    chunk = document;
+                } else {
+                    appendInNewPage(chunk, document);
+                }
+            }
+            write(chunk, baseUri, isLarge(characters), output);
+        } finally {
+            admission.release(cost);
+        }
+        htmls.clear();
+        return file;
+    }
+
+    /**
+     * Moves the body of the document to the end of the chunk, starting in a new page. The head of the document is
+     * dropped, documents of the same template share it
+     */
+    private static void appendInNewPage(Document chunk, Document document) {
+        Element section = chunk.body().appendElement("div");
+        for (Attribute attribute : document.body().attributes()) {
+            section.attr(attribute.getKey(), attribute.getValue());
+        }
+        section.attr("style", "page-break-before: always; " + section.attr("style"));
+        for (Node node : new ArrayList<>(document.body().childNodes())) {
+            section.appendChild(node);
+        }
+    }
+
+    private static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering the pdf pages");
+        } catch (ExecutionException e) {
+            // The pool wraps the checked exceptions of a callable in a RuntimeException
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private Document load(String html, String baseUri, PdfRenderMode mode) throws IOException {
+        if (mode == PdfRenderMode.JAVASCRIPT || (mode == PdfRenderMode.AUTO && hasScripts(html))) {
+            return loadWithJavaScript(html, baseUri);
+        }
+        long start = System.nanoTime();
+        Document document = Jsoup.parse(html, baseUri != null ? baseUri : "");
+        PdfPhase.PARSE.record(start);
+        return document;
+    }
+
+    /**
+     * Whether html with the given number of characters is rendered in large document mode
+     */
+    private boolean isLarge(long characters) {
+        return settings.getLargeDocumentThreshold() > 0 && characters >= settings.getLargeDocumentThreshold();
+    }
+
+    /**
+     * Lays out the document and writes the pdf, in large document mode the pdf is built in a PDFBox scratch file.
+     * PDFBox closes the stream it saves to, the given one is left open
+     */
+    private void write(Document document, String baseUri, boolean large, OutputStream outputStream)
+            throws IOException {
+        long start = System.nanoTime();
+        org.w3c.dom.Document w3cDocument = new W3CDom().fromJsoup(document);
+        PdfPhase.DOM.record(start);
+        start = System.nanoTime();
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        resources.apply(builder);
+        builder.withW3cDocument(w3cDocument, baseUri);
+        builder.toStream(new CloseShieldOutputStream(outputStream));
+        if (!large) {
+            builder.run();
+            PdfPhase.LAYOUT.record(start);
+            return;
+        }
+        try (PDDocument pdf = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            builder.usePDDocument(pdf);
+            builder.run();
+        }
+        PdfPhase.LAYOUT.record(start);
+    }
+
+    /**
+     * Converts the html to pdf into a buffer that moves to a temporary file when the pdf grows beyond the configured
+     * output spill threshold, html above the large document threshold is rendered in large document mode
+     *
+     * @param html
+     * @return the pdf, the caller must close it to delete the temporary file
+     */
+    public SpillingOutputStream renderToBuffer(String html) throws IOException {
+        SpillingOutputStream buffer = new SpillingOutputStream(settings.getOutputSpillThreshold());
+        try {
+            render(html, buffer);
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the html has scripts, ignoring case: a <strong>&lt;script</strong> tag, an event handler attribute
+     * such as <strong>onload=</strong> or a <strong>javascript:</strong> url in an attribute
+     */
+    static boolean hasScripts(String html) {
+        return SCRIPTS.matcher(html).find();
+    }
+
+    /**
+     * Loads the html in a pooled browser emulation, running its scripts, and copies the resulting page
+     */
+    private Document loadWithJavaScript(String html, String baseUri) throws IOException {
+        URL url = baseUri != null ? new URL(baseUri) : UrlUtils.URL_ABOUT_BLANK;
+        WebClient webClient = webClients.borrow();
+        try {
+            long start = System.nanoTime();
+            StringWebResponse response = new StringWebResponse(html, StandardCharsets.UTF_8, url);
+            HtmlPage page = (HtmlPage) webClient.loadWebResponseInto(response, webClient.getCurrentWindow());
+            Document document = HtmlPageConverter.toJsoup(page, url.toExternalForm());
+            PdfPhase.JAVASCRIPT.record(start);
+            return document;
+        } finally {
+            webClients.release(webClient);
+        }
+    }
+
+    /**
+     * Translates a <strong>classpath:</strong> base URI to the URL of the resource directory
+     */
+    private static String resolveBaseUri(String baseUri) {
+        if (baseUri == null || baseUri.isEmpty()) {
+            return null;
+        }
+        String uri = resolveUri(baseUri);
+        if (uri == null) {
+            LOGGER.warn("Pdf base URI {} not found, relative links will not be resolved", baseUri);
+        }
+        return uri;
+    }
+
+    /**
+     * Translates a <strong>classpath:</strong> location to the URL of the resource and a file path to its URI
+     *
+     * @return null when the classpath resource does not exist
+     */
+    static String resolveUri(String location) {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String path = location.substring(CLASSPATH_PREFIX.length());
+            URL url = PdfRenderer.class.getClassLoader().getResource(path.startsWith("/") ? path.substring(1) : path);
+            return url != null ? url.toExternalForm() : null;
+        }
+        if (URI_SCHEME.matcher(location).lookingAt()) {
+            return location;
+        }
+        return new File(location).toURI().toString();
+    }
+
+    /**
+     * Closes the idle web clients, the ones in use are closed when they are released, discards the cached resources
+     * and stops the threads of the page ranges once the running ones finish
+     */
+    public void close() {
+        webClients.close();
+        resources.clear();
+        rangePool.shutdown();
+    }
+
+    public PdfSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return the base URI of relative links, with <strong>classpath:</strong> translated to the resource URL
+     */
+    public String getBaseUri() {
+        return baseUri;
+    }
+
+    /**
+     * Lays out a range of pages of a document
+     */
+    @FunctionalInterface
+    interface RangeWriter {
+
+        void write(Document range, OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Flushes instead of closing the stream it wraps
+     */
+    static final class CloseShieldOutputStream extends FilterOutputStream {
+
+        CloseShieldOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.jokoframework.report.pdf;
+
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import io.github.jokoframework.report.exception.ErrorMessages;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resources shared by every pdf of a {@link PdfRenderer}: the registered fonts, loaded once, the font metrics and the
+ * bytes of the images, stylesheets and fonts linked from the html. Documents still embed the subset of the fonts they
+ * use, openhtmltopdf decodes images and parses stylesheets for each document.
+ */
+final class PdfResources {
+
+    private final List<Font> fonts = new ArrayList<>();
+    private final FontMetricsCache fontMetrics = new FontMetricsCache();
+    private final ResourceCache resourceCache;
+
+    /**
+     * @param fonts    definitions with the format <strong>family[:weight[:style]]=location</strong>, e.g.
+     *                 <strong>Roboto:700=classpath:/fonts/Roboto-Bold.ttf</strong>
+     * @param maxBytes max size of the cached resources
+     * @param ttl      milliseconds a cached http resource is used before being revalidated
+     */
+    PdfResources(List<String> fonts, long maxBytes, long ttl) {
+        this.resourceCache = new ResourceCache(maxBytes, ttl);
+        for (String definition : fonts) {
+            this.fonts.add(parseFont(definition));
+        }
+    }
+
+    /**
+     * Registers the fonts and the shared caches in the builder of a document
+     *
+     * @param builder
+     */
+    void apply(PdfRendererBuilder builder) {
+        for (Font font : fonts) {
+            builder.useFont(() -> new ByteArrayInputStream(font.content), font.family, font.weight, font.style, true);
+        }
+        builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetrics);
+        builder.useProtocolsStreamImplementation(resourceCache, ResourceCache.PROTOCOLS);
+    }
+
+    void clear() {
+        resourceCache.clear();
+    }
+
+    private static Font parseFont(String definition) {
+        int separator = definition.indexOf('=');
+        if (separator <= 0) {
+            throw new IllegalArgumentException(MessageFormat.format(ErrorMessages.PDF_FONT_ERROR, definition));
+        }
+        String[] attributes = definition.substring(0, separator).trim().split(":");
+        String location = definition.substring(separator + 1).trim();
+        String uri = PdfRenderer.resolveUri(location);
+        byte[] content;
+        try {
+            if (uri == null) {
+                throw new FileNotFoundException(location);
+            }
+            content = ResourceCache.fetch(uri);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(MessageFormat.format(ErrorMessages.PDF_FONT_ERROR, definition), e);
+        }
+        int weight = attributes.length > 1 ? Integer.parseInt(attributes[1].trim()) : 400;
+        BaseRendererBuilder.FontStyle style = attributes.length > 2
+                ? BaseRendererBuilder.FontStyle.valueOf(attributes[2].trim().toUpperCase(Locale.ROOT))
+                : BaseRendererBuilder.FontStyle.NORMAL;
+        return new Font(attributes[0].trim(), weight, style, content);
+    }
+
+    private static final class Font {
+        private final String family;
+        private final int weight;
+        private final BaseRendererBuilder.FontStyle style;
+        private final byte[] content;
+
+        private Font(String family, int weight, BaseRendererBuilder.FontStyle style, byte[] content) {
+            this.family = family;
+            this.weight = weight;
+            this.style = style;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.jokoframework.report.pdf;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Settings used to initialize the shared {@link PdfRenderer}
+ */
+@Getter
+@Setter
+public class PdfSettings {
+
+    public static final long DEFAULT_WEB_CLIENT_BORROW_TIMEOUT = 30000;
+    public static final long DEFAULT_RESOURCE_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+    public static final long DEFAULT_RESOURCE_CACHE_TTL = 60000;
+    public static final int DEFAULT_ADMISSION_MAX_QUEUED = 100;
+    public static final long DEFAULT_ADMISSION_QUEUE_TIMEOUT = 30000;
+    public static final int DEFAULT_ADMISSION_COST_FACTOR = 40;
+    public static final int DEFAULT_BULK_CHUNK_SIZE = 100;
+    public static final int DEFAULT_LARGE_DOCUMENT_THRESHOLD = 4 * 1024 * 1024;
+    public static final long DEFAULT_OUTPUT_SPILL_THRESHOLD = 8L * 1024 * 1024;
+
+    /**
+     * URI the relative links of the html (images, stylesheets, fonts) are resolved against, e.g.
+     * <strong>file:/opt/reports/</strong> or <strong>classpath:/reports/</strong>. Null leaves relative links
+     * unresolved
+     */
+    private String baseUri;
+
+    /**
+     * How the html is loaded, {@link PdfRenderMode#AUTO} only starts the browser emulation for html with scripts
+     */
+    private PdfRenderMode renderMode = PdfRenderMode.AUTO;
+
+    /**
+     * Max number of HtmlUnit web clients rendering html with scripts at the same time. A value lower or equal than
+     * zero means the number of available processors
+     */
+    private int webClientPoolSize = 0;
+
+    /**
+     * Milliseconds a pdf with scripts waits for a web client before failing
+     */
+    private long webClientBorrowTimeout = DEFAULT_WEB_CLIENT_BORROW_TIMEOUT;
+
+    /**
+     * Creates every web client of the pool and initializes its JavaScript engine when the renderer is configured,
+     * instead of on the first reports
+     */
+    private boolean webClientWarmUp = true;
+
+    /**
+     * Fonts available to every pdf, loaded once, with the format <strong>family[:weight[:style]]=location</strong>,
+     * e.g. <strong>Roboto:700=classpath:/fonts/Roboto-Bold.ttf</strong>. The location is a file path, a URL or a
+     * classpath resource
+     */
+    private List<String> fonts = new ArrayList<>();
+
+    /**
+     * Max bytes of the images, stylesheets and fonts linked from the html kept in memory and shared by every pdf,
+     * least recently used resources are evicted first. A value lower or equal than zero disables the cache
+     */
+    private long resourceCacheMaxBytes = DEFAULT_RESOURCE_CACHE_MAX_BYTES;
+
+    /**
+     * Milliseconds a cached http resource is used before asking the server whether it changed. Files are checked on
+     * every use and classpath resources in jars are never checked. A value lower or equal than zero asks the server
+     * every time
+     */
+    private long resourceCacheTtl = DEFAULT_RESOURCE_CACHE_TTL;
+
+    /**
+     * Max number of page ranges of a pdf rendered at the same time by
+     * {@link PdfRenderer#renderInParallel(String, OutputStream)}. A value lower or equal than zero means the number
+     * of available processors
+     */
+    private int parallelism = 0;
+
+    /**
+     * Max number of pdfs rendered at the same time, the rest wait in the queue. A value lower or equal than zero
+     * means the number of available processors
+     */
+    private int admissionMaxConcurrent = 0;
+
+    /**
+     * Max estimated bytes of the pdfs rendered at the same time, the rest wait in the queue. A value lower or equal
+     * than zero means a quarter of the max heap
+     */
+    private long admissionMaxBytes = 0;
+
+    /**
+     * Max number of pdfs waiting to be rendered, a pdf arriving with the queue full is rejected immediately
+     */
+    private int admissionMaxQueued = DEFAULT_ADMISSION_MAX_QUEUED;
+
+    /**
+     * Milliseconds a pdf waits in the queue before being rejected
+     */
+    private long admissionQueueTimeout = DEFAULT_ADMISSION_QUEUE_TIMEOUT;
+
+    /**
+     * Estimated bytes of heap used to render each character of html: the parsed documents, the layout and the pdf
+     */
+    private int admissionCostFactor = DEFAULT_ADMISSION_COST_FACTOR;
+
+    /**
+     * Number of documents laid out together by {@link PdfRenderer#renderMerged(Iterator, OutputStream)}, sharing
+     * the embedded fonts and images. Bigger chunks make smaller pdfs and use more memory
+     */
+    private int bulkChunkSize = DEFAULT_BULK_CHUNK_SIZE;
+
+    /**
+     * Characters of html from which a pdf is generated in large document mode: PDFBox keeps the pdf being written
+     * in a temporary scratch file instead of the heap. A value lower or equal than zero disables the mode
+     */
+    private int largeDocumentThreshold = DEFAULT_LARGE_DOCUMENT_THRESHOLD;
+
+    /**
+     * Max bytes of a generated pdf kept in memory by a {@link SpillingOutputStream}, bigger pdfs are moved to a
+     * temporary file
+     */
+    private long outputSpillThreshold = DEFAULT_OUTPUT_SPILL_THRESHOLD;
+
+}
@@ -0,0 +1,267 @@
+package io.github.jokoframework.report.pdf;
+
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used cache of the bytes of the resources linked from the html (images, stylesheets, fonts), shared
+ * by every pdf. Resources are fetched once and kept while the total size is below the limit, a resource bigger than a
+ * quarter of the limit is never cached.
+ * <p>
+ * Cached resources are checked before being used again: <strong>file:</strong> resources are read again when their
+ * modification time or size changes and <strong>http(s):</strong> resources older than the time to live are
+ * revalidated with the server through their <strong>ETag</strong> or <strong>Last-Modified</strong> headers.
+ * <strong>jar:</strong> resources don't change while the application runs and are kept until evicted.
+ * <p>
+ * Hits and misses are published in the <strong>joko.report.pdf.resources</strong> metric and the cached bytes in
+ * <strong>joko.report.pdf.resources.size</strong>.
+ */
+final class ResourceCache implements FSStreamFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCache.class);
+    static final String RESOURCES_COUNTER = "joko.report.pdf.resources";
+    static final String RESOURCES_SIZE_GAUGE = "joko.report.pdf.resources.size";
+    static final String[] PROTOCOLS = {"file", "http", "https", "jar"};
+    private static final int TIMEOUT = 10000;
+    private static final AtomicLong CACHED_BYTES = new AtomicLong();
+
+    static {
+        Gauge.builder(RESOURCES_SIZE_GAUGE, CACHED_BYTES, AtomicLong::get)
+                .description("Bytes of the pdf resources kept in memory")
+                .register(Metrics.globalRegistry);
+    }
+
+    private final long maxBytes;
+    private final long ttl;
+    private final Map<String, Entry> resources = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param maxBytes max size of the cached resources, lower or equal than zero disables the cache
+     * @param ttl      milliseconds an http resource is used before being revalidated with the server, lower or equal
+     *                 than zero revalidates it every time
+     */
+    ResourceCache(long maxBytes, long ttl) {
+        this.maxBytes = maxBytes;
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.hits = Counter.builder(RESOURCES_COUNTER).tag("result", "hit").register(Metrics.globalRegistry);
+        this.misses = Counter.builder(RESOURCES_COUNTER).tag("result", "miss").register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public FSStream getUrl(String url) {
+        byte[] content = get(url);
+        return new FSStream() {
+            @Override
+            public InputStream getStream() {
+                return content != null ? new ByteArrayInputStream(content) : null;
+            }
+
+            @Override
+            public Reader getReader() {
+                return content != null ? new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8) : null;
+            }
+        };
+    }
+
+    /**
+     * @return the content of the resource or null when it can not be read
+     */
+    byte[] get(String url) {
+        Entry cached;
+        synchronized (this) {
+            cached = resources.get(url);
+        }
+        if (cached != null && isFresh(url, cached)) {
+            hits.increment();
+            return cached.content;
+        }
+        Entry entry;
+        try {
+            entry = load(url, cached);
+        } catch (IOException e) {
+            LOGGER.warn("Pdf resource {} could not be read: {}", url, e.getMessage());
+            remove(url);
+            return null;
+        }
+        if (entry == cached) {
+            hits.increment();
+            return cached.content;
+        }
+        misses.increment();
+        put(url, entry);
+        return entry.content;
+    }
+
+    /**
+     * Whether the cached resource can be used without asking its origin
+     */
+    private boolean isFresh(String url, Entry entry) {
+        if (hasProtocol(url, "file:")) {
+            File file = toFile(url);
+            return file != null && file.lastModified() == entry.lastModified && file.length() == entry.length;
+        }
+        if (hasProtocol(url, "http:") || hasProtocol(url, "https:")) {
+            return System.nanoTime() - entry.validated < ttl;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the resource, an http resource already cached is only read again when the server reports it changed
+     *
+     * @param cached null when the resource is not cached
+     * @return the cached entry when it is still valid
+     */
+    private static Entry load(String url, Entry cached) throws IOException {
+        if (hasProtocol(url, "file:")) {
+            // Checked before reading, a change while reading is seen on the next use
+            File file = toFile(url);
+            long lastModified = file != null ? file.lastModified() : 0;
+            long length = file != null ? file.length() : -1;
+            return new Entry(fetch(url), lastModified, length, null);
+        }
+        URLConnection connection = open(url);
+        if (!(connection instanceof HttpURLConnection)) {
+            return new Entry(read(connection), 0, -1, null);
+        }
+        HttpURLConnection http = (HttpURLConnection) connection;
+        if (cached != null) {
+            if (cached.etag != null) {
+                http.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified > 0) {
+                http.setIfModifiedSince(cached.lastModified);
+            }
+            if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                http.getInputStream().close();
+                cached.validated = System.nanoTime();
+                return cached;
+            }
+        }
+        return new Entry(read(http), http.getLastModified(), -1, http.getHeaderField("ETag"));
+    }
+
+    private synchronized void put(String url, Entry entry) {
+        discard(resources.remove(url));
+        if (entry.content.length > maxBytes / 4) {
+            return;
+        }
+        resources.put(url, entry);
+        long added = entry.content.length;
+        Iterator<Entry> eldest = resources.values().iterator();
+        while (bytes + added > maxBytes) {
+            added -= eldest.next().content.length;
+            eldest.remove();
+        }
+        bytes += added;
+        CACHED_BYTES.addAndGet(added);
+    }
+
+    private synchronized void remove(String url) {
+        discard(resources.remove(url));
+    }
+
+    private void discard(Entry entry) {
+        if (entry != null) {
+            bytes -= entry.content.length;
+            CACHED_BYTES.addAndGet(-entry.content.length);
+        }
+    }
+
+    /**
+     * Discards every cached resource
+     */
+    synchronized void clear() {
+        resources.clear();
+        CACHED_BYTES.addAndGet(-bytes);
+        bytes = 0;
+    }
+
+    synchronized long size() {
+        return bytes;
+    }
+
+    static byte[] fetch(String url) throws IOException {
+        return read(open(url));
+    }
+
+    private static URLConnection open(String url) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        return connection;
+    }
+
+    private static byte[] read(URLConnection connection) throws IOException {
+        try (InputStream input = connection.getInputStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private static boolean hasProtocol(String url, String protocol) {
+        return url.regionMatches(true, 0, protocol, 0, protocol.length());
+    }
+
+    /**
+     * @return null when the url is not a valid file URI
+     */
+    private static File toFile(String url) {
+        try {
+            return new File(new URI(url));
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cached content of a resource and the values used to check whether it changed
+     */
+    private static final class Entry {
+        private final byte[] content;
+        // Modification time of a file or Last-Modified of an http resource, zero when unknown
+        private final long lastModified;
+        private final long length;
+        private final String etag;
+        private volatile long validated = System.nanoTime();
+
+        private Entry(byte[] content, long lastModified, long length, String etag) {
+            this.content = content;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.jokoframework.report.pdf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Output buffer that keeps the content in memory up to a threshold and moves it to a temporary file when it grows
+ * beyond it, so a big pdf does not take its whole size from the heap. The content can be read as many times as
+ * needed; {@link #close()} discards it and deletes the temporary file.
+ */
+public final class SpillingOutputStream extends OutputStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingOutputStream.class);
+    private static final String TEMP_FILE_PREFIX = "joko-report-";
+
+    private final long threshold;
+    private Memory memory = new Memory();
+    private File file;
+    private OutputStream fileOutput;
+    private long size;
+
+    /**
+     * @param threshold max bytes kept in memory
+     */
+    public SpillingOutputStream(long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        reserve(1).write(b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        reserve(len).write(b, off, len);
+        size += len;
+    }
+
+    private OutputStream reserve(int length) throws IOException {
+        if (fileOutput != null) {
+            return fileOutput;
+        }
+        if (memory == null) {
+            throw new IOException("Buffer already closed");
+        }
+        if (size + length <= threshold) {
+            return memory;
+        }
+        file = File.createTempFile(TEMP_FILE_PREFIX, ".pdf");
+        fileOutput = new BufferedOutputStream(new FileOutputStream(file));
+        memory.writeTo(fileOutput);
+        memory = null;
+        return fileOutput;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOutput != null) {
+            fileOutput.flush();
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return whether the content is still kept in memory
+     */
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * Reads the content written so far, without copying it when it is in memory
+     *
+     * @return
+     */
+    public InputStream toInputStream() throws IOException {
+        if (file == null) {
+            if (memory == null) {
+                throw new IOException("Buffer already closed");
+            }
+            return memory.toInputStream();
+        }
+        fileOutput.flush();
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Copies the content written so far into the given stream
+     *
+     * @param outputStream it is not closed
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (file == null) {
+            if (memory == null) {
+                throw new IOException("Buffer already closed");
+            }
+            memory.writeTo(outputStream);
+            return;
+        }
+        fileOutput.flush();
+        Files.copy(file.toPath(), outputStream);
+    }
+
+    /**
+     * Discards the content, deleting the temporary file
+     */
+    @Override
+    public void close() throws IOException {
+        memory = null;
+        if (file == null) {
+            return;
+        }
+        try {
+            fileOutput.close();
+        } finally {
+            if (!file.delete()) {
+                LOGGER.warn("Pdf buffer {} could not be deleted", file);
+            }
+            // Keeps rejecting writes after closing
+            fileOutput = null;
+            file = null;
+        }
+    }
+
+    /**
+     * Byte array buffer read without copying its array
+     */
+    private static final class Memory extends ByteArrayOutputStream {
+
+        private InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.jokoframework.report.pdf;
+
+import com.gargoylesoftware.htmlunit.StringWebResponse;
+import com.gargoylesoftware.htmlunit.TopLevelWindow;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebWindow;
+import com.gargoylesoftware.htmlunit.util.UrlUtils;
+import io.github.jokoframework.report.exception.ErrorMessages;
+import io.github.jokoframework.report.exception.WebClientErrorListener;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of HtmlUnit {@link WebClient}s with JavaScript enabled. Clients are created on demand up to the size
+ * of the pool, or all of them when the pool is warmed up, and are reset when they are released so the next report
+ * does not see the windows, cookies or pending scripts of the previous one.
+ * <p>
+ * The time spent waiting for a client is published in the <strong>joko.report.pdf.webclient.wait</strong> metric.
+ */
+final class WebClientPool implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebClientPool.class);
+    static final String WAIT_TIMER = "joko.report.pdf.webclient.wait";
+    private static final String WARM_UP_HTML = "<html><head><script>document.title = 'warm up';</script></head><body></body></html>";
+
+    private final int size;
+    private final long borrowTimeout;
+    private final BlockingQueue<WebClient> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final Timer waitTimer;
+    private volatile boolean closed;
+
+    /**
+     * @param size          max number of clients
+     * @param borrowTimeout milliseconds a render waits for a client before failing
+     */
+    WebClientPool(int size, long borrowTimeout) {
+        this.size = size;
+        this.borrowTimeout = borrowTimeout;
+        this.waitTimer = Timer.builder(WAIT_TIMER)
+                .description("Time spent waiting for an HtmlUnit web client to render a pdf")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Creates every client of the pool and runs a script on each one, so the JavaScript engine is initialized before
+     * the first report
+     */
+    void warmUp() {
+        long start = System.nanoTime();
+        while (created.get() < size) {
+            WebClient webClient = tryCreate();
+            if (webClient == null) {
+                break;
+            }
+            try {
+                webClient.loadWebResponseInto(new StringWebResponse(WARM_UP_HTML, StandardCharsets.UTF_8,
+                        UrlUtils.URL_ABOUT_BLANK), webClient.getCurrentWindow());
+            } catch (IOException e) {
+                LOGGER.warn("Web client warm up failed: {}", e.getMessage());
+            }
+            release(webClient);
+        }
+        LOGGER.info("{} web clients warmed up in {}ms", created.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Takes an idle client, creates one if the pool is not full or waits for one to be released
+     *
+     * @return
+     * @throws IOException when no client is released within the borrow timeout
+     */
+    WebClient borrow() throws IOException {
+        long start = System.nanoTime();
+        try {
+            WebClient webClient = idle.poll();
+            if (webClient == null) {
+                webClient = tryCreate();
+            }
+            if (webClient == null) {
+                webClient = idle.poll(borrowTimeout, TimeUnit.MILLISECONDS);
+            }
+            if (webClient == null) {
+                throw new IOException(MessageFormat.format(ErrorMessages.WEB_CLIENT_TIMEOUT_ERROR, String.valueOf(borrowTimeout)));
+            }
+            return webClient;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a web client");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Resets the client and returns it to the pool, a client that can not be reset is discarded
+     *
+     * @param webClient
+     */
+    void release(WebClient webClient) {
+        if (closed || !reset(webClient)) {
+            discard(webClient);
+            return;
+        }
+        idle.offer(webClient);
+        // The pool may have been closed between the check and the offer
+        if (closed && idle.remove(webClient)) {
+            discard(webClient);
+        }
+    }
+
+    private WebClient tryCreate() {
+        int count = created.get();
+        while (count < size) {
+            if (created.compareAndSet(count, count + 1)) {
+                WebClient webClient = new WebClient();
+                webClient.getOptions().setJavaScriptEnabled(true);
+                webClient.setJavaScriptErrorListener(new WebClientErrorListener());
+                return webClient;
+            }
+            count = created.get();
+        }
+        return null;
+    }
+
+    /**
+     * Stops the pending scripts, closes the windows opened by the report and loads a blank page in the main one
+     */
+    private static boolean reset(WebClient webClient) {
+        try {
+            WebWindow current = webClient.getCurrentWindow();
+            for (TopLevelWindow window : new ArrayList<>(webClient.getTopLevelWindows())) {
+                if (window != current.getTopWindow()) {
+                    window.close();
+                }
+            }
+            current.getJobManager().removeAllJobs();
+            webClient.getCookieManager().clearCookies();
+            webClient.getPage(current.getTopWindow(), new WebRequest(UrlUtils.URL_ABOUT_BLANK));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Web client could not be reset, discarding it: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(WebClient webClient) {
+        created.decrementAndGet();
+        try {
+            webClient.close();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Web client close failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        WebClient webClient;
+        while ((webClient = idle.poll()) != null) {
+            discard(webClient);
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 
@@ -59,10 +60,10 @@ public class ESCPrinter {
     final Charset ISO_8859_1 = StandardCharsets.ISO_8859_1;
     final Charset DEFAULT_CHARSET = ISO_8859_1;
     private boolean escp24pin; //boolean to indicate whether the printer is a 24 pin esc/p2 epson
-    private ByteArrayOutputStream baos;
+    private EscOutputStream baos;
     private PrintStream pstream;
 
-    private List encodedList;
+    private List<String> encodedList;
     private static int MAX_ADVANCE_9PIN = 216; //for 24/48 pin esc/p2 printers this should be 180
     private static int MAX_ADVANCE_24PIN = 180;
     private static int MAX_UNITS = 127; //for vertical positioning range is between 0 - 255 (0 <= n <= 255) according to epson ref. but 255 gives weird errors at 1.5f, 127 as max (0 - 128) seems to be working
@@ -154,8 +155,8 @@ public class ESCPrinter {
      */
     public boolean initialize() throws UnsupportedEncodingException {
         //create stream objs
-        baos = new ByteArrayOutputStream();
-        encodedList = new ArrayList();
+        baos = new EscOutputStream();
+        encodedList = new ArrayList<>();
         pstream = new PrintStream(baos, true, DEFAULT_CHARSET.name());
 
         //reset default settings
@@ -659,10 +660,45 @@ public class ESCPrinter {
         return baos.toByteArray();
     }
 
-    public List getEncodedList() {
+    public List<String> getEncodedList() {
         return encodedList;
     }
 
+    /**
+     * Retrieves the current position of the output, to be used with {@link #getOutputSince(Mark)}
+     *
+     * @return
+     */
+    public Mark mark() {
+        pstream.flush();
+        return new Mark(baos.size(), encodedList.size());
+    }
+
+    /**
+     * Retrieves the commands printed since the given mark
+     *
+     * @param mark
+     * @return
+     */
+    public Fragment getOutputSince(Mark mark) {
+        pstream.flush();
+        return new Fragment(baos.copyRange(mark.bytes, baos.size()),
+                new ArrayList<>(encodedList.subList(mark.encoded, encodedList.size())));
+    }
+
+    /**
+     * Prints again the commands of a fragment previously retrieved with {@link #getOutputSince(Mark)}
+     *
+     * @param fragment
+     * @return
+     */
+    public ESCPrinter append(Fragment fragment) {
+        pstream.flush();
+        baos.write(fragment.bytes, 0, fragment.bytes.length);
+        encodedList.addAll(fragment.encoded);
+        return this;
+    }
+
     public void encode(String[] a) {
         try {
             System.setOut(this.pstream);
@@ -686,4 +722,40 @@ public class ESCPrinter {
         stringBuilder.append("<ESCPrinter[=").append(", 24pin=").append(escp24pin).append("]>");
         return stringBuilder.toString();
     }
+
+    /**
+     * Position of the printer output
+     */
+    public static final class Mark {
+        private final int bytes;
+        private final int encoded;
+
+        private Mark(int bytes, int encoded) {
+            this.bytes = bytes;
+            this.encoded = encoded;
+        }
+    }
+
+    /**
+     * Commands printed between a {@link Mark} and a later position of the printer output
+     */
+    public static final class Fragment {
+        private final byte[] bytes;
+        private final List<String> encoded;
+
+        private Fragment(byte[] bytes, List<String> encoded) {
+            this.bytes = bytes;
+            this.encoded = encoded;
+        }
+
+        public byte[] getBytes() {
+            return bytes.clone();
+        }
+    }
+
+    private static final class EscOutputStream extends ByteArrayOutputStream {
+        private synchronized byte[] copyRange(int from, int to) {
+            return Arrays.copyOfRange(buf, from, to);
+        }
+    }
 }
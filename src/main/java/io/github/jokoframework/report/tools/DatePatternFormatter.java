@@ -0,0 +1,123 @@
+package io.github.jokoframework.report.tools;
+
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Thread-safe formatter of a date pattern in a locale, built once and reused by every call to
+ * {@link DateTools#format(Object, String, Locale)} with the same pattern and locale.
+ * <p>
+ * java.time values are formatted with a cached {@link DateTimeFormatter}. {@link Date}s are formatted by the same
+ * formatter when the pattern only uses letters that mean the same for {@link SimpleDateFormat} and
+ * {@link DateTimeFormatter} in a locale with gregorian calendar and ASCII digits, and by a per-thread
+ * {@link SimpleDateFormat} otherwise.
+ */
+final class DatePatternFormatter {
+
+    private static final String NUMERIC_FIELDS = "HhmsKk";
+    private static final String SECTION_CHARACTERS = "[]{}#";
+    private static final String GREGORIAN = "gregory";
+    private static final long GREGORIAN_CUTOVER = new GregorianCalendar().getGregorianChange().getTime();
+
+    private final String pattern;
+    private final Locale locale;
+    private final DateTimeFormatter formatter;
+    private final boolean sameForDates;
+    private final ThreadLocal<SimpleDateFormat> dateFormats;
+
+    DatePatternFormatter(String pattern, Locale locale) {
+        this.pattern = pattern;
+        this.locale = locale;
+        DateTimeFormatter dateTimeFormatter;
+        try {
+            dateTimeFormatter = DateTimeFormatter.ofPattern(pattern, locale);
+        } catch (IllegalArgumentException e) {
+            // Only valid for SimpleDateFormat, java.time values fail when they use it
+            dateTimeFormatter = null;
+        }
+        this.formatter = dateTimeFormatter;
+        this.sameForDates = dateTimeFormatter != null && isSameForDates(pattern)
+                && DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0'
+                && GREGORIAN.equals(Calendar.getInstance(locale).getCalendarType());
+        this.dateFormats = ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern, locale));
+    }
+
+    String format(TemporalAccessor temporal) {
+        DateTimeFormatter dateTimeFormatter = formatter != null ? formatter : DateTimeFormatter.ofPattern(pattern, locale);
+        return dateTimeFormatter.format(temporal);
+    }
+
+    String format(Date date) {
+        if (sameForDates && date.getTime() >= GREGORIAN_CUTOVER) {
+            return formatter.format(Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()));
+        }
+        SimpleDateFormat dateFormat = dateFormats.get();
+        dateFormat.setTimeZone(TimeZone.getDefault());
+        return dateFormat.format(date);
+    }
+
+    /**
+     * Whether every letter of the pattern formats the same with {@link SimpleDateFormat} and
+     * {@link DateTimeFormatter}: days, numeric months, month and day names, years of 2 or 4 digits, hours,
+     * minutes, seconds and milliseconds. Month names need a day in the pattern, without it
+     * {@link SimpleDateFormat} uses the standalone form of the name.
+     */
+    static boolean isSameForDates(String pattern) {
+        boolean quoted = false;
+        boolean hasDay = false;
+        boolean hasMonthName = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                i++;
+                continue;
+            }
+            if (quoted || !Character.isLetter(c)) {
+                if (!quoted && SECTION_CHARACTERS.indexOf(c) >= 0) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            if (!isSameField(c, count)) {
+                return false;
+            }
+            hasDay |= c == 'd';
+            hasMonthName |= c == 'M' && count >= 3;
+            i += count;
+        }
+        return hasDay || !hasMonthName;
+    }
+
+    private static boolean isSameField(char letter, int count) {
+        if (letter == 'd' || NUMERIC_FIELDS.indexOf(letter) >= 0) {
+            return count <= 2;
+        }
+        switch (letter) {
+            case 'M':
+            case 'E':
+                return count <= 4;
+            case 'y':
+                return count == 2 || count == 4;
+            case 'S':
+                return count == 3;
+            default:
+                return false;
+        }
+    }
+}
@@ -4,18 +4,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 
+/**
+ * Date formatting for the templates. Formatters, month names and {@link MessageFormat} patterns are compiled
+ * once and shared by every instance.
+ */
 public class DateTools {
 
+    private static final FormatterCache<List<Object>, DatePatternFormatter> FORMATTERS =
+            new FormatterCache<>(key -> new DatePatternFormatter((String) key.get(0), (Locale) key.get(1)));
+    private static final FormatterCache<Locale, String[]> MONTH_NAMES = new FormatterCache<>(DateTools::monthNames);
+    /**
+     * The arguments of the patterns are always strings, so formatting only reads the state of a shared instance
+     */
+    private static final FormatterCache<String, MessageFormat> MESSAGE_FORMATS = new FormatterCache<>(MessageFormat::new);
+
     private Locale locale;
 
     public DateTools(Locale locale) {
@@ -29,21 +43,19 @@ public class DateTools {
     }
 
     public String format(Object dateToFormat, String format, Locale locale) {
-        if (dateToFormat instanceof LocalDateTime) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-            return ((LocalDateTime) dateToFormat).format(formatter);
-        }
-        if (dateToFormat instanceof LocalDate) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
-            return ((LocalDate) dateToFormat).format(formatter);
+        if (dateToFormat instanceof LocalDateTime || dateToFormat instanceof LocalDate) {
+            return formatter(format, locale).format((TemporalAccessor) dateToFormat);
         }
         if (dateToFormat instanceof Date) {
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(format, configLocale(locale));
-            return simpleDateFormat.format(dateToFormat);
+            return formatter(format, locale).format((Date) dateToFormat);
         }
         return "";
     }
 
+    private DatePatternFormatter formatter(String format, Locale locale) {
+        return FORMATTERS.get(Arrays.asList(format, configLocale(locale)));
+    }
+
     public String formatAsWords(Object dateToFormat, String format) {
         return formatAsWords(dateToFormat, format, null, null);
     }
@@ -66,7 +78,7 @@ public class DateTools {
             return formatLocalDateAsWords((LocalDate) dateToFormat, format, city, configLocale(locale));
         }
         if (dateToFormat instanceof Date) {
-            LocalDate localDate = ((Date) dateToFormat).toInstant()
+            LocalDate localDate = Instant.ofEpochMilli(((Date) dateToFormat).getTime())
                     .atZone(ZoneId.systemDefault())
                     .toLocalDate();
             return formatLocalDateAsWords(localDate, format, city, configLocale(locale));
@@ -77,17 +89,26 @@ public class DateTools {
 
     private String formatLocalDateAsWords(LocalDate localDate, String format, String city, Locale locale) {
         LOGGER.debug("FORMAT AS WORDS");
-        Integer day = localDate.getDayOfMonth();
-        Month month = localDate.getMonth();
-        Integer year = localDate.getYear();
-
-        String monthName = month.getDisplayName(TextStyle.FULL, locale);
-        monthName = monthName.substring(0, 1).toUpperCase() + monthName.substring(1);
-        String[] args = {day.toString(), monthName, year.toString()};
+        String day = Integer.toString(localDate.getDayOfMonth());
+        String monthName = MONTH_NAMES.get(locale)[localDate.getMonthValue() - 1];
+        String year = Integer.toString(localDate.getYear());
+        Object[] args = {day, monthName, year};
         if (city != null && !city.isEmpty()) {
-            args = new String[]{city, day.toString(), monthName, year.toString()};
+            args = new Object[]{city, day, monthName, year};
+        }
+        return MESSAGE_FORMATS.get(format).format(args);
+    }
+
+    /**
+     * Full month names of the locale, capitalized
+     */
+    private static String[] monthNames(Locale locale) {
+        String[] names = new String[12];
+        for (Month month : Month.values()) {
+            String monthName = month.getDisplayName(TextStyle.FULL, locale);
+            names[month.ordinal()] = monthName.substring(0, 1).toUpperCase() + monthName.substring(1);
         }
-        return MessageFormat.format(format, args);
+        return names;
     }
 
     private Locale configLocale(Locale locale) {
@@ -0,0 +1,36 @@
+package io.github.jokoframework.report.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Concurrent cache of compiled formatters. Once it holds {@link #MAX_ENTRIES} formatters new ones are built on
+ * every request and not kept, so patterns built dynamically by a template can't grow it without limit.
+ *
+ * @param <K> pattern, or pattern and locale
+ * @param <V> formatter, which must be thread-safe
+ */
+final class FormatterCache<K, V> {
+
+    static final int MAX_ENTRIES = 256;
+
+    private final ConcurrentMap<K, V> formatters = new ConcurrentHashMap<>();
+    private final Function<K, V> factory;
+
+    FormatterCache(Function<K, V> factory) {
+        this.factory = factory;
+    }
+
+    V get(K key) {
+        V formatter = formatters.get(key);
+        if (formatter == null) {
+            formatter = factory.apply(key);
+            if (formatters.size() < MAX_ENTRIES) {
+                V previous = formatters.putIfAbsent(key, formatter);
+                formatter = previous != null ? previous : formatter;
+            }
+        }
+        return formatter;
+    }
+}
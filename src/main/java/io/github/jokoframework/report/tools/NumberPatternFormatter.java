@@ -0,0 +1,134 @@
+package io.github.jokoframework.report.tools;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Thread-safe formatter of a number pattern in a locale, built once and reused by every call to
+ * {@link NumberTools#format(String, Object)} with the same pattern.
+ * <p>
+ * Plain decimal patterns such as <strong>#,##0</strong> or <strong>#,##0.00</strong> format integral numbers and
+ * {@link BigDecimal}s with up to 18 digits by writing the digits into a per-thread buffer. Any other pattern or
+ * value is formatted by a per-thread copy of the {@link DecimalFormat}, and both paths produce the same output.
+ */
+final class NumberPatternFormatter {
+
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_FAST_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final SharedDecimalFormat decimalFormat;
+    private final boolean fastPath;
+    private final int fractionDigits;
+    private final int minimumIntegerDigits;
+    private final int groupingSize;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String negativePrefix;
+    private final ThreadLocal<char[]> buffers;
+
+    NumberPatternFormatter(String pattern, Locale locale) {
+        DecimalFormat prototype = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        prototype.applyPattern(pattern);
+        this.decimalFormat = new SharedDecimalFormat(prototype);
+
+        DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+        this.fractionDigits = prototype.getMaximumFractionDigits();
+        this.minimumIntegerDigits = prototype.getMinimumIntegerDigits();
+        this.groupingSize = prototype.isGroupingUsed() ? prototype.getGroupingSize() : 0;
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.negativePrefix = prototype.getNegativePrefix();
+        this.fastPath = symbols.getZeroDigit() == '0'
+                && fractionDigits == prototype.getMinimumFractionDigits()
+                && fractionDigits <= MAX_FAST_DIGITS
+                && minimumIntegerDigits <= MAX_FAST_DIGITS
+                && prototype.getMaximumIntegerDigits() >= MAX_FAST_DIGITS + 1
+                && !prototype.isDecimalSeparatorAlwaysShown()
+                && prototype.getMultiplier() == 1
+                && prototype.getRoundingMode() == RoundingMode.HALF_EVEN
+                && prototype.getPositivePrefix().isEmpty()
+                && prototype.getPositiveSuffix().isEmpty()
+                && prototype.getNegativeSuffix().isEmpty()
+                && !pattern.contains("E");
+        int bufferSize = 3 * MAX_FAST_DIGITS + 2 + negativePrefix.length();
+        this.buffers = ThreadLocal.withInitial(() -> new char[bufferSize]);
+    }
+
+    String format(Object value) {
+        if (fastPath) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                long number = ((Number) value).longValue();
+                if (number != Long.MIN_VALUE) {
+                    return format(number < 0, Math.abs(number), 0);
+                }
+            } else if (value instanceof BigDecimal) {
+                String formatted = format((BigDecimal) value);
+                if (formatted != null) {
+                    return formatted;
+                }
+            }
+        }
+        return decimalFormat.format(value);
+    }
+
+    /**
+     * @return the formatted number or null when it has too many digits for the fast path
+     */
+    private String format(BigDecimal value) {
+        if (value.precision() - value.scale() > MAX_FAST_DIGITS - fractionDigits) {
+            return null;
+        }
+        BigDecimal scaled = value.setScale(fractionDigits, RoundingMode.HALF_EVEN);
+        long unscaled = fractionDigits == 0 ? scaled.longValue() : scaled.unscaledValue().longValue();
+        return format(value.signum() < 0, Math.abs(unscaled), fractionDigits);
+    }
+
+    /**
+     * Writes the digits of the unscaled value from right to left: fraction, decimal separator and grouped integer
+     * digits. When the value is integral and the pattern has fraction digits the fraction is all zeros.
+     */
+    private String format(boolean negative, long unscaled, int scale) {
+        char[] buffer = buffers.get();
+        int position = buffer.length;
+        long integral = unscaled;
+        if (fractionDigits > 0) {
+            long fraction = 0;
+            if (scale > 0) {
+                integral = unscaled / POWERS_OF_TEN[scale];
+                fraction = unscaled % POWERS_OF_TEN[scale];
+            }
+            for (int i = 0; i < fractionDigits; i++) {
+                buffer[--position] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            buffer[--position] = decimalSeparator;
+        }
+        int digits = 0;
+        int minimumDigits = minimumIntegerDigits == 0 && fractionDigits == 0 ? 1 : minimumIntegerDigits;
+        while (integral > 0 || digits < minimumDigits) {
+            if (groupingSize > 0 && digits > 0 && digits % groupingSize == 0) {
+                buffer[--position] = groupingSeparator;
+            }
+            buffer[--position] = (char) ('0' + integral % 10);
+            integral /= 10;
+            digits++;
+        }
+        if (negative) {
+            for (int i = negativePrefix.length() - 1; i >= 0; i--) {
+                buffer[--position] = negativePrefix.charAt(i);
+            }
+        }
+        return new String(buffer, position, buffer.length - position);
+    }
+}
@@ -1,12 +1,19 @@
 package io.github.jokoframework.report.tools;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 
+/**
+ * Number formatting for the templates. Formatters are compiled once per pattern and locale and shared by every
+ * instance.
+ */
 public class NumberTools {
 
+    private static final FormatterCache<List<Object>, NumberPatternFormatter> FORMATTERS =
+            new FormatterCache<>(key -> new NumberPatternFormatter((String) key.get(0), (Locale) key.get(1)));
+
     private Locale locale;
 
     public NumberTools(Locale locale) {
@@ -25,14 +32,18 @@ public class NumberTools {
             format = BigDecimal.ZERO.compareTo((BigDecimal) value) == 0
                     ? formatWhenZero : format;
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getNumberInstance(locale);
-        df.applyPattern(format);
-        return df.format(value);
+        return FORMATTERS.get(Arrays.asList(format, locale)).format(value);
     }
 
     public String toSpanish(Object number) {
+        if (number instanceof Integer || number instanceof Long) {
+            return NumbersToSpanishWords.numberToWords(((Number) number).longValue());
+        }
+        if (number instanceof BigDecimal) {
+            return NumbersToSpanishWords.numberToWords((BigDecimal) number);
+        }
         String numberToConvert = "";
-        if (number instanceof Integer || number instanceof Double || number instanceof BigDecimal) {
+        if (number instanceof Double) {
             numberToConvert = number.toString();
         }
         return NumbersToSpanishWords.numberToWords(numberToConvert);
@@ -1,14 +1,45 @@
 package io.github.jokoframework.report.tools;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 
+/**
+ * Converts amounts to words in spanish, e.g. 1250.50 to "Mil Doscientos Cincuenta con Cincuenta Centavos ".
+ * <p>
+ * The words of the 1000 groups of three digits are computed once. The integer part is split into periods of six
+ * digits (thousands and units) named with the long scale: millon, billon, trillon... up to vigintillon, after
+ * which the names are composed with "Vigintillones". Cents are truncated to two digits.
+ */
 public class NumbersToSpanishWords {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(NumbersToSpanishWords.class);
+    private static final int GROUP = 1000;
+    private static final int PERIOD = 1000000;
+    private static final int PERIOD_DIGITS = 6;
+    private static final String ZERO = "Cero ";
+    private static final String MINUS = "Menos ";
+    private static final String THOUSAND = "Mil ";
+    private static final String ONE_THOUSAND = "Un Mil";
+    private static final String ONE_MILLION = "Un Millon";
+    private static final String[] UNITS = {"", "Un ", "Dos ", "Tres ", "Cuatro ", "Cinco ", "Seis ", "Siete ", "Ocho ", "Nueve "};
+    private static final String[] TEENS = {"Diez ", "Once ", "Doce ", "Trece ", "Catorce ", "Quince "};
+    private static final String[] TENS = {"", "Dieci", "Veinti", "Treinta ", "Cuarenta ", "Cincuenta ", "Sesenta ", "Setenta ",
+            "Ochenta ", "Noventa "};
+    private static final String[] HUNDREDS = {"", "Ciento ", "Doscientos ", "Trescientos ", "Cuatrocientos ", "Quinientos ",
+            "Seiscientos ", "Setecientos ", "Ochocientos ", "Novecientos "};
+    private static final String[] SCALES = {"", "Millon", "Billon", "Trillon", "Cuatrillon", "Quintillon", "Sextillon",
+            "Septillon", "Octillon", "Nonillon", "Decillon", "Undecillon", "Duodecillon", "Tredecillon", "Cuatordecillon",
+            "Quindecillon", "Sexdecillon", "Septendecillon", "Octodecillon", "Novendecillon", "Vigintillon"};
+    private static final int LARGEST_SCALE = SCALES.length - 1;
+    private static final String[] GROUPS = new String[GROUP];
+
+    static {
+        for (int n = 0; n < GROUP; n++) {
+            GROUPS[n] = group(n);
+        }
+    }
+
+    private static final ThreadLocal<StringBuilder> BUILDERS = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
     private NumbersToSpanishWords() {
     }
@@ -20,200 +51,138 @@ public class NumbersToSpanishWords {
      * @return the words representation of the number.
      */
     public static String numberToWords(String number) {
-        StringBuilder result = new StringBuilder();
-        BigDecimal totalBigDecimal = new BigDecimal(number).setScale(2, RoundingMode.DOWN);
-        long parteEntera = totalBigDecimal.toBigInteger().longValue();
-        int unidades = (int) (parteEntera % 1000);
-        int miles = (int) ((parteEntera / 1000) % 1000);
-        int millones = (int) ((parteEntera / 1000000) % 1000);
-        int milMillones = (int) ((parteEntera / 1000000000) % 1000);
-        String textTotal = totalBigDecimal.toPlainString();
-        int radixLoc = textTotal.indexOf('.');
-        int cents = Integer.parseInt(textTotal.substring(radixLoc + 1, textTotal.length()));
+        return numberToWords(new BigDecimal(number));
+    }
 
-        if (parteEntera == 0) {
-            result.append("Cero ");
-            return result.toString();
+    /**
+     * Converts a given number to words representation in spanish
+     *
+     * @param number
+     * @return the words representation of the number.
+     */
+    public static String numberToWords(BigDecimal number) {
+        BigDecimal truncated = number.setScale(2, RoundingMode.DOWN);
+        BigInteger unscaled = truncated.unscaledValue().abs();
+        int cents = unscaled.remainder(BigInteger.valueOf(100)).intValue();
+        BigInteger integral = unscaled.divide(BigInteger.valueOf(100));
+        if (integral.bitLength() < Long.SIZE - 1) {
+            return toWords(number.signum() < 0, integral.longValue(), cents);
         }
-
-        if (milMillones > 0) result.append(processDigits(milMillones).toString() + "Mil ");
-        if (millones > 0) result.append(processDigits(millones).toString());
-
-        if (milMillones == 0 && millones == 1) result.append("Millon ");
-        else if (milMillones > 0 || millones > 0) result.append("Millones ");
-
-        if (miles > 0) result.append(processDigits(miles).toString() + "Mil ");
-        if (unidades > 0) result.append(processDigits(unidades).toString());
-        if (cents > 0) {
-            result.append("con ");
-            result.append(processDigits(cents).toString());
-            result.append(cents >= 10 ? "Centavos " : "Centavo ");
+        String digits = integral.toString();
+        int count = (digits.length() + PERIOD_DIGITS - 1) / PERIOD_DIGITS;
+        int[] periods = new int[count];
+        for (int k = 0; k < count; k++) {
+            int end = digits.length() - k * PERIOD_DIGITS;
+            periods[k] = Integer.parseInt(digits.substring(Math.max(0, end - PERIOD_DIGITS), end));
         }
-        String finalResult = result.toString();
-        if (finalResult.startsWith("Un Mil") && !finalResult.startsWith("Un Millon")) {
-            finalResult = result.toString().substring(3, finalResult.length());
+        return toWords(number.signum() < 0, periods, count, cents);
+    }
+
+    /**
+     * Converts a given number to words representation in spanish
+     *
+     * @param number
+     * @return the words representation of the number.
+     */
+    public static String numberToWords(long number) {
+        if (number == Long.MIN_VALUE) {
+            return numberToWords(BigDecimal.valueOf(number));
         }
-        LOGGER.debug("result: {}", finalResult);
-        return finalResult;
+        return toWords(number < 0, Math.abs(number), 0);
     }
 
-    private static String processCentenas(int unidades, int decenas, int centenas) {
-        StringBuilder sb = new StringBuilder();
-        String result;
-        switch (centenas) {
-            case 0:
-                break;
-            case 1:
-                if (decenas == 0 && unidades == 0) {
-                    sb.append("Cien ");
-                } else {
-                    sb.append("Ciento ");
-                }
-                break;
-            case 2:
-                sb.append("Doscientos ");
-                break;
-            case 3:
-                sb.append("Trescientos ");
-                break;
-            case 4:
-                sb.append("Cuatrocientos ");
-                break;
-            case 5:
-                sb.append("Quinientos ");
-                break;
-            case 6:
-                sb.append("Seiscientos ");
-                break;
-            case 7:
-                sb.append("Setecientos ");
-                break;
-            case 8:
-                sb.append("Ochocientos ");
-                break;
-            case 9:
-                sb.append("Novecientos ");
-                break;
-            default:
-                break;
-        }
-        result = sb.toString();
-        return result;
+    private static String toWords(boolean negative, long integral, int cents) {
+        int[] periods = new int[4];
+        int count = 0;
+        for (long rest = integral; rest > 0; rest /= PERIOD) {
+            periods[count++] = (int) (rest % PERIOD);
+        }
+        return toWords(negative, periods, count, cents);
     }
 
-    private static String processDecenas(int unidades, int decenas) {
-        StringBuilder sb = new StringBuilder();
-        String result;
-        switch (decenas) {
-            case 1:
-                if (unidades == 0) {
-                    sb.append("Diez ");
-                } else if (unidades == 1) {
-                    sb.append("Once ");
-                } else if (unidades == 2) {
-                    sb.append("Doce ");
-                } else if (unidades == 3) {
-                    sb.append("Trece ");
-                } else if (unidades == 4) {
-                    sb.append("Catorce ");
-                } else if (unidades == 5) {
-                    sb.append("Quince ");
-                } else sb.append("Dieci");
-                break;
-            case 2:
-                if (unidades == 0) {
-                    sb.append("Veinte ");
-                } else {
-                    sb.append("Veinti");
-                }
-                break;
-            case 3:
-                sb.append("Treinta ");
-                break;
-            case 4:
-                sb.append("Cuarenta ");
-                break;
-            case 5:
-                sb.append("Cincuenta ");
-                break;
-            case 6:
-                sb.append("Sesenta ");
-                break;
-            case 7:
-                sb.append("Setenta ");
-                break;
-            case 8:
-                sb.append("Ochenta ");
-                break;
-            case 9:
-                sb.append("Noventa ");
-                break;
-            default:
-                break;
-        }
-        result = sb.toString();
-        return result;
+    /**
+     * @param periods groups of six digits of the integer part, the least significant first
+     * @param count   number of periods, zero when the integer part is zero
+     */
+    private static String toWords(boolean negative, int[] periods, int count, int cents) {
+        if (count == 0) {
+            return ZERO;
+        }
+        StringBuilder result = BUILDERS.get();
+        result.setLength(0);
+        if (negative) {
+            result.append(MINUS);
+        }
+        int start = result.length();
+        for (int k = count - 1; k >= 0; k--) {
+            appendPeriod(result, periods[k], k);
+        }
+        if (startsWith(result, ONE_THOUSAND, start) && !startsWith(result, ONE_MILLION, start)) {
+            result.delete(start, start + 3);
+        }
+        if (cents > 0) {
+            result.append("con ").append(GROUPS[cents]).append(cents >= 10 ? "Centavos " : "Centavo ");
+        }
+        return result.toString();
     }
 
-    private static String processUnidades(int unidades, int decenas) {
-        StringBuilder sb = new StringBuilder();
-        String result;
-        if (decenas > 2 && unidades > 0) {
-            sb.append("y ");
+    private static void appendPeriod(StringBuilder result, int period, int scale) {
+        if (period == 0) {
+            return;
+        }
+        int thousands = period / GROUP;
+        if (thousands > 0) {
+            result.append(GROUPS[thousands]).append(THOUSAND);
         }
+        result.append(GROUPS[period % GROUP]);
+        if (scale == 0) {
+            return;
+        }
+        // Only the first name is singular: Un Millon, Un Millon Vigintillones
+        boolean singular = period == 1;
+        int named = scale % LARGEST_SCALE;
+        if (named > 0) {
+            result.append(SCALES[named]).append(singular ? " " : "es ");
+            singular = false;
+        }
+        for (int i = 0; i < scale / LARGEST_SCALE; i++) {
+            result.append(SCALES[LARGEST_SCALE]).append(singular ? " " : "es ");
+            singular = false;
+        }
+    }
 
-        if (decenas == 0 || (decenas > 2 && unidades > 0) || (decenas == 2 && unidades > 0) || (decenas > 0 && unidades > 5)) {
-            switch (unidades) {
-                case 1:
-                    sb.append("Un ");
-                    break;
-                case 2:
-                    sb.append("Dos ");
-                    break;
-                case 3:
-                    sb.append("Tres ");
-                    break;
-                case 4:
-                    sb.append("Cuatro ");
-                    break;
-                case 5:
-                    sb.append("Cinco ");
-                    break;
-                case 6:
-                    sb.append("Seis ");
-                    break;
-                case 7:
-                    sb.append("Siete ");
-                    break;
-                case 8:
-                    sb.append("Ocho ");
-                    break;
-                case 9:
-                    sb.append("Nueve ");
-                    break;
-                default:
-                    break;
+    private static boolean startsWith(StringBuilder result, String prefix, int start) {
+        if (result.length() - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (result.charAt(start + i) != prefix.charAt(i)) {
+                return false;
             }
         }
-        result = sb.toString();
-        return result;
+        return true;
     }
 
     /**
-     * Converts a three digits number to words representation in spanish
-     *
-     * @param n La cantidad a convertir.
-     * @return the words representation of the number.
+     * Words of a number of three digits
      */
-    private static StringBuilder processDigits(int n) {
-        StringBuilder result = new StringBuilder();
-        int centenas = n / 100;
-        int decenas = (n % 100) / 10;
-        int unidades = (n % 10);
-        result.append(NumbersToSpanishWords.processCentenas(unidades, decenas, centenas));
-        result.append(NumbersToSpanishWords.processDecenas(unidades, decenas));
-        result.append(NumbersToSpanishWords.processUnidades(unidades, decenas));
-        return result;
+    private static String group(int n) {
+        int hundreds = n / 100;
+        int tens = (n % 100) / 10;
+        int units = n % 10;
+        StringBuilder words = new StringBuilder();
+        words.append(hundreds == 1 && tens == 0 && units == 0 ? "Cien " : HUNDREDS[hundreds]);
+        if (tens == 1 && units <= 5) {
+            words.append(TEENS[units]);
+        } else if (tens == 2 && units == 0) {
+            words.append("Veinte ");
+        } else {
+            words.append(TENS[tens]);
+            if (tens > 2 && units > 0) {
+                words.append("y ");
+            }
+            words.append(UNITS[units]);
+        }
+        return words.toString();
     }
-
 }
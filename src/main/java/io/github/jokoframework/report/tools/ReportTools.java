@@ -10,12 +10,27 @@ import org.apache.velocity.tools.generic.NumberTool;
 import java.text.DecimalFormat;
 import java.time.ZoneId;
 import java.time.format.TextStyle;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
+/**
+ * Tools published to the templates as <strong>$Tools</strong>.
+ * <p>
+ * Each render gets its own instance, which can be modified, use {@link #of(Locale, String)} to get it: the velocity,
+ * date and number tools are shared and the decimal format is cloned from a prototype of the same locale and pattern,
+ * instead of building all of them again for each report. {@link #setLocale(Locale)} gives the instance its own date
+ * and number tools.
+ */
 @Getter
 @Setter
 public class ReportTools {
 
+    public static final Locale DEFAULT_LOCALE = new Locale("es", "ES");
+    private static final FormatterCache<List<Object>, ReportTools> PROTOTYPES = new FormatterCache<>(
+            key -> new ReportTools((Locale) key.get(0), (String) key.get(1)));
+
     public Locale locale;
     public DateTools date;
     public NumberTools number;
@@ -27,13 +42,21 @@ public class ReportTools {
     public final NumberTool numberTool;
     public final DateTool dateTool;
 
-
     public ReportTools() {
-        this.setLocale(new Locale("es", "ES"));
+        this(DEFAULT_LOCALE, null);
+    }
+
+    /**
+     * @param locale         locale of the date and number tools
+     * @param decimalPattern pattern of <strong>decimalFormat</strong>, null for the default pattern of the JVM
+     *                       locale
+     */
+    public ReportTools(Locale locale, String decimalPattern) {
+        this.setLocale(locale);
 
         //JAVA
         this.textStyle = TextStyle.FULL;
-        this.decimalFormat = new DecimalFormat();
+        this.decimalFormat = decimalPattern == null ? new DecimalFormat() : new DecimalFormat(decimalPattern);
         this.zoneId = ZoneId.class;
 
         //Apache Commons
@@ -45,12 +68,59 @@ public class ReportTools {
         this.dateTool = new DateTool();
     }
 
+    /**
+     * Copies the prototype, sharing its velocity, date and number tools, which are only read
+     *
+     * @param prototype
+     */
+    private ReportTools(ReportTools prototype) {
+        this.locale = prototype.locale;
+        this.date = prototype.date;
+        this.number = prototype.number;
+        this.textStyle = prototype.textStyle;
+        this.decimalFormat = (DecimalFormat) prototype.decimalFormat.clone();
+        this.zoneId = prototype.zoneId;
+        this.stringUtils = prototype.stringUtils;
+        this.objectUtils = prototype.objectUtils;
+        this.numberTool = prototype.numberTool;
+        this.dateTool = prototype.dateTool;
+    }
+
+    /**
+     * Retrieves new tools of the default locale and decimal pattern
+     *
+     * @return
+     */
+    public static ReportTools getDefault() {
+        return of(DEFAULT_LOCALE, null);
+    }
+
+    /**
+     * Retrieves new tools of a locale and decimal pattern, copied from a prototype built on the first request
+     *
+     * @param locale         null for the default locale
+     * @param decimalPattern null for the default pattern
+     * @return
+     */
+    public static ReportTools of(Locale locale, String decimalPattern) {
+        Locale toolsLocale = locale != null ? locale : DEFAULT_LOCALE;
+        return new ReportTools(PROTOTYPES.get(Arrays.asList(toolsLocale, decimalPattern)));
+    }
+
     public void initTools() {
         this.date = new DateTools(this.locale);
         this.number = new NumberTools(this.locale);
     }
 
+    /**
+     * Changes the locale of the date and number tools, which are built again only when the locale is a different one
+     *
+     * @param locale
+     */
     public void setLocale(Locale locale) {
+        if (date != null && number != null && Objects.equals(this.locale, locale)) {
+            return;
+        }
         this.locale = locale;
         this.initTools();
     }
@@ -0,0 +1,162 @@
+package io.github.jokoframework.report.tools;
+
+import java.math.RoundingMode;
+import java.text.AttributedCharacterIterator;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Currency;
+
+/**
+ * Read-only number format, backed by a {@link DecimalFormat}, that can be shared by concurrent threads. Each
+ * thread formats with its own copy of the prototype, and every setter throws
+ * {@link UnsupportedOperationException}: the cached {@link NumberPatternFormatter}s are only read.
+ */
+final class SharedDecimalFormat extends NumberFormat {
+
+    private static final long serialVersionUID = 1L;
+    private static final String READ_ONLY = "Shared decimal format is read only, configure the pattern of the report instead";
+
+    private final DecimalFormat prototype;
+    private final transient ThreadLocal<DecimalFormat> formats;
+
+    /**
+     * @param prototype copied, later changes to it are not seen by this format
+     */
+    SharedDecimalFormat(DecimalFormat prototype) {
+        this.prototype = (DecimalFormat) prototype.clone();
+        this.formats = ThreadLocal.withInitial(() -> (DecimalFormat) this.prototype.clone());
+    }
+
+    @Override
+    public StringBuffer format(Object number, StringBuffer toAppendTo, FieldPosition pos) {
+        return formats.get().format(number, toAppendTo, pos);
+    }
+
+    @Override
+    public StringBuffer format(double number, StringBuffer toAppendTo, FieldPosition pos) {
+        return formats.get().format(number, toAppendTo, pos);
+    }
+
+    @Override
+    public StringBuffer format(long number, StringBuffer toAppendTo, FieldPosition pos) {
+        return formats.get().format(number, toAppendTo, pos);
+    }
+
+    @Override
+    public AttributedCharacterIterator formatToCharacterIterator(Object obj) {
+        return formats.get().formatToCharacterIterator(obj);
+    }
+
+    @Override
+    public Number parse(String source, ParsePosition parsePosition) {
+        return formats.get().parse(source, parsePosition);
+    }
+
+    public String toPattern() {
+        return prototype.toPattern();
+    }
+
+    /**
+     * @return a private copy of the format, which can be modified
+     */
+    @Override
+    public Object clone() {
+        return prototype.clone();
+    }
+
+    @Override
+    public boolean isGroupingUsed() {
+        return prototype.isGroupingUsed();
+    }
+
+    @Override
+    public boolean isParseIntegerOnly() {
+        return prototype.isParseIntegerOnly();
+    }
+
+    @Override
+    public int getMaximumIntegerDigits() {
+        return prototype.getMaximumIntegerDigits();
+    }
+
+    @Override
+    public int getMinimumIntegerDigits() {
+        return prototype.getMinimumIntegerDigits();
+    }
+
+    @Override
+    public int getMaximumFractionDigits() {
+        return prototype.getMaximumFractionDigits();
+    }
+
+    @Override
+    public int getMinimumFractionDigits() {
+        return prototype.getMinimumFractionDigits();
+    }
+
+    @Override
+    public Currency getCurrency() {
+        return prototype.getCurrency();
+    }
+
+    @Override
+    public RoundingMode getRoundingMode() {
+        return prototype.getRoundingMode();
+    }
+
+    @Override
+    public void setGroupingUsed(boolean newValue) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setParseIntegerOnly(boolean value) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setMaximumIntegerDigits(int newValue) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setMinimumIntegerDigits(int newValue) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setMaximumFractionDigits(int newValue) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setMinimumFractionDigits(int newValue) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setCurrency(Currency currency) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setRoundingMode(RoundingMode roundingMode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    private Object readResolve() {
+        return new SharedDecimalFormat(prototype);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof SharedDecimalFormat && prototype.equals(((SharedDecimalFormat) obj).prototype);
+    }
+
+    @Override
+    public int hashCode() {
+        return prototype.hashCode();
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.jokoframework.report;
+
+import io.github.jokoframework.report.tools.ReportTools;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledReportConcurrencyTests {
+
+    private static final String TEMPLATE = "reports/concurrency.vm";
+    private static final int THREADS = 16;
+    private static final int RENDERS_PER_THREAD = 250;
+    private static final int DISTINCT_PARAMS = 40;
+
+    @Test
+    void concurrentRendersMatchSingleThreadedOutput() throws Exception {
+        CompiledReport report = CompiledReport.compile(TEMPLATE).withDecimalFormat("#,##0.00");
+        List<Map<String, Object>> params = buildParams();
+        List<String> expectedText = new ArrayList<>();
+        List<byte[]> expectedEsc = new ArrayList<>();
+        for (Map<String, Object> param : params) {
+            StringWriter writer = new StringWriter();
+            expectedEsc.add(report.render(param, writer).getEscPrinter().getAsBytes());
+            expectedText.add(writer.toString());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                Callable<Integer> task = () -> {
+                    start.await();
+                    int mismatches = 0;
+                    for (int i = 0; i < RENDERS_PER_THREAD; i++) {
+                        int index = (offset + i) % DISTINCT_PARAMS;
+                        StringWriter writer = new StringWriter();
+                        byte[] esc = report.render(params.get(index), writer).getEscPrinter().getAsBytes();
+                        if (!expectedText.get(index).equals(writer.toString())
+                                || !Arrays.equals(expectedEsc.get(index), esc)) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                };
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            int mismatches = 0;
+            for (Future<Integer> result : results) {
+                mismatches += result.get(1, TimeUnit.MINUTES);
+            }
+            assertEquals(0, mismatches);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void renderContextsDoNotShareMutableState() {
+        CompiledReport report = CompiledReport.compile(TEMPLATE);
+        RenderContext first = report.newRenderContext(buildParams().get(0));
+        RenderContext second = report.newRenderContext(buildParams().get(1));
+
+        assertNotSame(first.getContext(), second.getContext());
+        assertNotSame(first.getReportTools(), second.getReportTools());
+        assertNotSame(first.getReportTools().decimalFormat, second.getReportTools().decimalFormat);
+        assertSame(first.getReportTools().getDate(), second.getReportTools().getDate());
+        assertSame(first.getReportTools().getNumber(), second.getReportTools().getNumber());
+        assertSame(first.getReportTools().numberTool, second.getReportTools().numberTool);
+        assertNotSame(first.getEscPrinter(), second.getEscPrinter());
+
+        first.getReportTools().decimalFormat.applyPattern("0.00");
+        assertEquals(new DecimalFormat().toPattern(), second.getReportTools().decimalFormat.toPattern());
+        assertEquals(new DecimalFormat().toPattern(), report.newRenderContext(buildParams().get(0)).getReportTools().decimalFormat.toPattern());
+
+        first.getReportTools().setLocale(Locale.US);
+        assertEquals(Locale.US, first.getReportTools().getNumber().getLocale());
+        assertEquals(ReportTools.DEFAULT_LOCALE, second.getReportTools().getNumber().getLocale());
+        assertEquals(ReportTools.DEFAULT_LOCALE, second.getReportTools().getDate().getLocale());
+    }
+
+    @Test
+    void derivedReportsDoNotAffectTheOriginal() throws Exception {
+        CompiledReport report = CompiledReport.compile(TEMPLATE);
+        Map<String, Object> param = buildParams().get(2);
+        String before = report.renderAsString(param);
+
+        String custom = report.withDecimalFormat("0.0000").renderAsString(param);
+
+        assertEquals(before, report.renderAsString(param));
+        assertTrue(custom.contains("Monto: 2002.0000"));
+    }
+
+    private static List<Map<String, Object>> buildParams() {
+        List<Map<String, Object>> params = new ArrayList<>();
+        for (int i = 0; i < DISTINCT_PARAMS; i++) {
+            Map<String, Object> param = new HashMap<>();
+            param.put("name", "Cliente " + i);
+            param.put("amount", new BigDecimal(i * 1001).add(new BigDecimal("0.5").multiply(new BigDecimal(i % 2))));
+            param.put("date", LocalDate.of(2022, 1 + i % 12, 1 + i % 28));
+            List<String> items = new ArrayList<>();
+            for (int j = 0; j <= i % 5; j++) {
+                items.add("item " + i + "." + j);
+            }
+            param.put("items", items);
+            params.add(param);
+        }
+        return params;
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.jokoframework.report.batch;
+
+import io.github.jokoframework.report.CompiledReport;
+import io.github.jokoframework.report.ReportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRendererTests {
+
+    private static final String TEMPLATE = "reports/concurrency.vm";
+    private static final int ITEMS = 60;
+    private static final int FAILING_ITEM = 17;
+
+    @Test
+    void resultsKeepTheParamsOrderAndIsolateErrors() throws Exception {
+        CompiledReport report = CompiledReport.compile(TEMPLATE);
+        List<Map<String, Object>> params = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            params.add(buildParams(i));
+        }
+
+        List<BatchResult> results;
+        try (BatchRenderer renderer = new BatchRenderer(BatchRenderer.newExecutor(4, false), 8)) {
+            results = renderer.render(report, params, ReportFormat.TEXT);
+        }
+
+        assertEquals(ITEMS, results.size());
+        for (int i = 0; i < ITEMS; i++) {
+            BatchResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            if (i == FAILING_ITEM) {
+                assertFalse(result.isSuccess());
+                assertNotNull(result.getError());
+            } else {
+                assertTrue(result.isSuccess());
+                assertEquals(report.renderAsString(params.get(i)), new String(result.getOutput(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static Map<String, Object> buildParams(int i) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "Cliente " + i);
+        params.put("amount", new BigDecimal(i * 100));
+        params.put("date", LocalDate.of(2022, 3, 1 + i % 28));
+        if (i == FAILING_ITEM) {
+            Supplier<List<String>> failing = () -> {
+                throw new IllegalStateException("Item " + i + " can't be loaded");
+            };
+            params.put("items", failing);
+        } else {
+            params.put("items", Collections.singletonList("item " + i));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.jokoframework.report.component;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JokoReportTests {
+
+    private static final String TEMPLATE = "reports/invoice.vm";
+
+    private final JokoReport jokoReport = new JokoReport();
+
+    @Test
+    void pdfIsGeneratedFromTheTemplate() throws IOException {
+        String text = text(jokoReport.getPDFAsByte(TEMPLATE, params("001-001-0000123")));
+
+        assertTrue(text.contains("Factura 001-001-0000123"));
+        assertTrue(text.contains("Cliente: Juan Pérez"));
+    }
+
+    @Test
+    void pdfIsWrittenIntoTheStream() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        jokoReport.writePDF(TEMPLATE, params("001-001-0000124"), output);
+
+        assertTrue(text(output.toByteArray()).contains("Factura 001-001-0000124"));
+    }
+
+    @Test
+    void streamIsLeftOpenAfterThePdf() throws IOException {
+        ResponseOutputStream output = new ResponseOutputStream();
+
+        jokoReport.writePDF(TEMPLATE, params("001-001-0000125"), output);
+        jokoReport.writePDFInParallel(TEMPLATE, params("001-001-0000126"), output);
+
+        assertFalse(output.closed);
+        output.write('\n');
+    }
+
+    @Test
+    void mergedPdfLeavesTheStreamOpen() throws IOException {
+        ResponseOutputStream output = new ResponseOutputStream();
+
+        jokoReport.writeMergedPDF(TEMPLATE, Stream.of(params("001-001-0000127"), params("001-001-0000128")), output);
+
+        assertFalse(output.closed);
+        String text = text(output.toByteArray());
+        assertTrue(text.contains("Factura 001-001-0000127"));
+        assertTrue(text.contains("Factura 001-001-0000128"));
+        output.write('\n');
+    }
+
+    private static Map<String, Object> params(String number) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", number);
+        params.put("name", "Juan Pérez");
+        return params;
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        try (PDDocument document = PDDocument.load(pdf)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    /**
+     * Rejects writes once closed, like the output stream of a servlet response
+     */
+    private static final class ResponseOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public synchronized void write(int b) {
+            checkOpen();
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            checkOpen();
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("Stream closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.jokoframework.report.config;
+
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.exception.JokoReportException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplatePreloaderTests {
+
+    @Test
+    void resolvesClasspathPatternsIntoTemplatePaths() throws Exception {
+        TemplatePreloader preloader = preloader("classpath:/reports/**/*.vm", true);
+
+        Set<String> templates = preloader.findTemplates();
+
+        assertTrue(templates.contains("reports/concurrency.vm"));
+        assertTrue(templates.contains("reports/parity.vm"));
+        assertDoesNotThrow(preloader::afterPropertiesSet);
+    }
+
+    @Test
+    void templatesWithSyntaxErrorsFailTheStartup() {
+        JokoReportException exception = assertThrows(JokoReportException.class,
+                () -> preloader("classpath:invalid/*.vtl", true).afterPropertiesSet());
+
+        assertTrue(exception.getMessage().contains("invalid/unclosed.vtl"));
+    }
+
+    @Test
+    void templatesWithSyntaxErrorsAreOnlyLoggedWhenConfigured() {
+        assertDoesNotThrow(() -> preloader("classpath:invalid/*.vtl", false).afterPropertiesSet());
+    }
+
+    private static TemplatePreloader preloader(String location, boolean failOnError) {
+        return new TemplatePreloader(ReportEngine.getInstance(), Collections.singletonList(location), true, failOnError);
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.jokoframework.report.data;
+
+import io.github.jokoframework.report.CompiledReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyRowsTests {
+
+    private static final String TEMPLATE = "reports/lazy-rows.vm";
+    private static final int ROWS = 25;
+
+    @Test
+    void foreachPullsRowsFromAStreamAndClosesIt() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Iterable<Integer> rows = LazyRows.ofStream(() -> IntStream.range(0, ROWS).boxed().onClose(() -> closed.set(true)));
+
+        assertEquals(expectedRows(), renderRows(rows));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void streamsLeftWithBreakAreClosedWhenTheMergeEnds() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Iterable<Integer> rows = LazyRows.ofStream(() -> IntStream.range(0, ROWS).boxed().onClose(() -> closed.set(true)));
+        Map<String, Object> params = new HashMap<>();
+        params.put("rows", rows);
+
+        String output = CompiledReport.compile("reports/lazy-rows-break.vm").renderAsString(params);
+
+        assertTrue(output.contains("row:1"));
+        assertFalse(output.contains("row:2"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void foreachAcceptsStreamsAndSuppliersDirectly() throws Exception {
+        Supplier<Stream<Integer>> supplier = () -> IntStream.range(0, ROWS).boxed();
+
+        assertEquals(expectedRows(), renderRows(supplier.get()));
+        assertEquals(expectedRows(), renderRows(supplier));
+        assertEquals(expectedRows(), renderRows(supplier.get().spliterator()));
+    }
+
+    @Test
+    void foreachFetchesRowsPageByPage() throws Exception {
+        AtomicInteger fetchedPages = new AtomicInteger();
+        Iterable<Integer> rows = LazyRows.ofPages(10, (page, size) -> {
+            fetchedPages.incrementAndGet();
+            int from = page * size;
+            if (from >= ROWS) {
+                return Collections.emptyList();
+            }
+            return IntStream.range(from, Math.min(from + size, ROWS)).boxed().collect(Collectors.toList());
+        });
+
+        assertEquals(expectedRows(), renderRows(rows));
+        assertEquals(3, fetchedPages.get());
+    }
+
+    private static List<String> renderRows(Object rows) throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("rows", rows);
+        String output = CompiledReport.compile(TEMPLATE).renderAsString(params);
+        List<String> rendered = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            if (line.startsWith("row:")) {
+                rendered.add(line.trim());
+            }
+        }
+        return rendered;
+    }
+
+    private static List<String> expectedRows() {
+        return IntStream.range(0, ROWS).mapToObj(i -> "row:" + i).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.jokoframework.report.engine;
+
+import io.github.jokoframework.report.CompiledReport;
+import io.github.jokoframework.report.RenderContext;
+import io.github.jokoframework.report.printer.ESCPrinter;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CopyRendererTests {
+
+    private static final String COPIES_TEMPLATE = "reports/copies.vm";
+    private static final String STATIC_TEMPLATE = "reports/concurrency.vm";
+
+    @Test
+    void copiesMatchRenderingEveryCopyAgain() throws Exception {
+        CompiledReport report = CompiledReport.compile(COPIES_TEMPLATE);
+        Map<String, Object> params = buildParams();
+
+        RenderContext expectedContext = report.newRenderContext(params);
+        StringBuilder expectedText = new StringBuilder();
+        for (int copy = 1; copy <= 3; copy++) {
+            expectedContext.put(CopyRenderer.COPY_NUMBER, copy);
+            StringWriter writer = new StringWriter();
+            report.render(expectedContext, writer);
+            expectedText.append(writer);
+        }
+
+        RenderContext renderContext = report.newRenderContext(params);
+        List<String> copies = report.renderCopies(renderContext, 3);
+
+        assertEquals(3, copies.size());
+        assertEquals(expectedText.toString(), String.join("", copies));
+        assertTrue(copies.get(0).contains("ORIGINAL"));
+        assertTrue(copies.get(2).contains("DUPLICADO 3"));
+        assertArrayEquals(expectedContext.getEscPrinter().getAsBytes(), renderContext.getEscPrinter().getAsBytes());
+    }
+
+    @Test
+    void templatesWithoutCopyNumberAreReplicated() throws Exception {
+        CompiledReport report = CompiledReport.compile(STATIC_TEMPLATE);
+        Map<String, Object> params = buildParams();
+        params.put("name", "Cliente");
+        params.put("amount", 1500);
+        params.put("date", LocalDate.of(2022, 5, 1));
+
+        byte[] single = report.renderAsEscBytes(params);
+        RenderContext renderContext = report.newRenderContext(params);
+        List<String> copies = report.renderCopies(renderContext, 2);
+
+        assertEquals(copies.get(0), copies.get(1));
+        int prefix = new ESCPrinter(false).getAsBytes().length;
+        int copyLength = single.length - prefix;
+        byte[] expectedEsc = Arrays.copyOf(single, single.length + copyLength);
+        System.arraycopy(single, prefix, expectedEsc, single.length, copyLength);
+        assertArrayEquals(expectedEsc, renderContext.getEscPrinter().getAsBytes());
+    }
+
+    @Test
+    void stopEndsOnlyTheCopyThatReachesIt() throws Exception {
+        CompiledReport report = CompiledReport.compile("reports/copies-stop.vm");
+
+        List<String> copies = report.renderCopies(report.newRenderContext(buildParams()), 3);
+
+        assertTrue(copies.get(0).contains("Fin"));
+        assertTrue(copies.get(1).contains("Copia 2"));
+        assertFalse(copies.get(1).contains("Fin"));
+        assertTrue(copies.get(2).contains("Fin"));
+    }
+
+    @Test
+    void methodCallsRunOnEveryCopyOnlyInsideSet() throws Exception {
+        CompiledReport report = CompiledReport.compile("reports/copies-calls.vm");
+        List<String> log = new ArrayList<>();
+        Map<String, Object> params = buildParams();
+        params.put("log", log);
+
+        report.renderCopies(report.newRenderContext(params), 3);
+
+        assertEquals(3, Collections.frequency(log, "set"));
+        assertEquals(1, Collections.frequency(log, "call"));
+    }
+
+    private static Map<String, Object> buildParams() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", "001-001-0000123");
+        params.put("items", Arrays.asList("uno", "dos", "tres"));
+        return params;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.jokoframework.report.engine;
+
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportUberspectTests {
+
+    private static final String TEMPLATE = "#foreach ($bean in $Params.beans)"
+            + "$bean.name|$bean.active|$bean.size|$bean.tags.size()|$bean.attributes.segment|$bean.attributes.size|$bean.missing|$!bean.missing\n"
+            + "#end";
+
+    @Test
+    void propertiesResolveLikeTheStockUberspector() {
+        VelocityEngine stockEngine = new VelocityEngine();
+        stockEngine.init();
+
+        String expected = evaluate(stockEngine);
+        String actual = evaluate(ReportEngine.getInstance().getVelocityEngine());
+
+        assertEquals(expected, actual);
+        assertEquals(expected, evaluate(ReportEngine.getInstance().getVelocityEngine()));
+    }
+
+    private static String evaluate(VelocityEngine engine) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("beans", Arrays.asList(new Bean("uno", true, "A"), new Bean("dos", false, null), new Bean(null, true, "B")));
+        VelocityContext context = new VelocityContext();
+        context.put("Params", params);
+        StringWriter writer = new StringWriter();
+        engine.evaluate(context, writer, "uberspect-test", TEMPLATE);
+        return writer.toString();
+    }
+
+    public static class Bean {
+        private final String name;
+        private final boolean active;
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        public Bean(String name, boolean active, String segment) {
+            this.name = name;
+            this.active = active;
+            this.attributes.put("segment", segment);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public int size() {
+            return 7;
+        }
+
+        public String[] getTags() {
+            return new String[]{"a", "b"};
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+    }
+}
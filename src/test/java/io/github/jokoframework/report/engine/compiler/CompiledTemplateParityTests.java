@@ -0,0 +1,109 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import io.github.jokoframework.report.CompiledReport;
+import io.github.jokoframework.report.RenderContext;
+import io.github.jokoframework.report.engine.ReportEngine;
+import org.apache.velocity.Template;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the output of the classes generated by the generateTestTemplateSources gradle task with the output of
+ * the interpreted templates, byte for byte
+ */
+class CompiledTemplateParityTests {
+
+    static Stream<Object[]> cases() {
+        List<Object[]> cases = new ArrayList<>();
+        for (Map<String, Object> params : parityParams()) {
+            cases.add(new Object[]{"reports/parity.vm", params});
+        }
+        cases.add(new Object[]{"reports/concurrency.vm", concurrencyParams()});
+        cases.add(new Object[]{"reports/copies.vm", copiesParams()});
+        cases.add(new Object[]{"reports/lazy-rows.vm", Collections.singletonMap("rows", Arrays.asList(1, 2, 3))});
+        return cases.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("cases")
+    void compiledOutputMatchesInterpretedOutput(String templatePath, Map<String, Object> params) throws Exception {
+        ReportEngine engine = ReportEngine.getInstance();
+        Template template = engine.getParsedTemplate(templatePath);
+        AbstractCompiledTemplate compiled = engine.getCompiledTemplate(engine.getTemplate(templatePath));
+        assertNotNull(compiled, "No compiled class for " + templatePath);
+        CompiledReport report = CompiledReport.compile(templatePath);
+
+        RenderContext interpretedContext = report.newRenderContext(params);
+        StringWriter interpreted = new StringWriter();
+        template.merge(interpretedContext.getContext(), interpreted);
+
+        RenderContext compiledContext = report.newRenderContext(params);
+        StringWriter output = new StringWriter();
+        compiled.merge(compiledContext.getContext(), output);
+
+        assertEquals(interpreted.toString(), output.toString());
+        assertArrayEquals(interpretedContext.getEscPrinter().getAsBytes(), compiledContext.getEscPrinter().getAsBytes());
+    }
+
+    private static List<Map<String, Object>> parityParams() {
+        Map<String, Object> customer = new HashMap<>();
+        customer.put("name", "Juan");
+        customer.put("ruc", "80012345-6");
+
+        Map<String, Object> full = new HashMap<>();
+        full.put("customer", customer);
+        full.put("items", Arrays.asList(
+                item("Resma A4", 45, true, "papel", "oficina"),
+                item("Lapicera", 3, false),
+                item("Impresora matricial", 1250, true, "hardware")));
+
+        Map<String, Object> empty = new HashMap<>();
+        empty.put("customer", customer);
+        empty.put("items", Collections.emptyList());
+
+        Map<String, Object> stopped = new HashMap<>(full);
+        stopped.put("stop", true);
+
+        return Arrays.asList(full, empty, new HashMap<>(), stopped);
+    }
+
+    private static Map<String, Object> item(String description, int amount, boolean taxed, String... tags) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("description", description);
+        item.put("amount", amount);
+        item.put("taxed", taxed);
+        item.put("tags", Arrays.asList(tags));
+        return item;
+    }
+
+    private static Map<String, Object> concurrencyParams() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "Cliente");
+        params.put("amount", new BigDecimal("1500.5"));
+        params.put("date", LocalDate.of(2022, 5, 1));
+        params.put("items", Arrays.asList("uno", "dos"));
+        return params;
+    }
+
+    private static Map<String, Object> copiesParams() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", "001-001-0000123");
+        params.put("items", Arrays.asList("uno", "dos", "tres"));
+        return params;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.jokoframework.report.engine.compiler;
+
+import io.github.jokoframework.report.engine.ReportEngine;
+import io.github.jokoframework.report.engine.ReportUberspect;
+import org.apache.velocity.Template;
+import org.apache.velocity.context.Context;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TemplateClassCacheTests {
+
+    private static final String TEMPLATE = "cached/invoice.vtl";
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void cachedClassRendersTheTemplateWithoutParsingIt() throws Exception {
+        ReportEngine engine = ReportEngine.getInstance();
+        RuntimeServices runtimeServices = ((ReportUberspect) engine.getVelocityEngine()
+                .getApplicationAttribute(ReportUberspect.APPLICATION_ATTRIBUTE)).getRuntimeServices();
+        Template parsed = engine.getParsedTemplate(TEMPLATE);
+        String sourceHash = TemplateSources.hash(TemplateSources.read(TEMPLATE));
+
+        assertNull(new CompiledTemplates(runtimeServices, new TemplateClassCache(cacheDir)).getPrecompiled(TEMPLATE));
+
+        Path classFile = new TemplateClassCache(cacheDir).store(parsed, sourceHash);
+        assertTrue(Files.exists(classFile));
+        assertTrue(classFile.startsWith(cacheDir.resolve(TemplateClassCache.FORMAT_VERSION).resolve(sourceHash)));
+
+        Template precompiled = new CompiledTemplates(runtimeServices, new TemplateClassCache(cacheDir)).getPrecompiled(TEMPLATE);
+        assertTrue(precompiled instanceof PrecompiledTemplate);
+        assertNull(precompiled.getData());
+        assertEquals(render(parsed), render(precompiled));
+    }
+
+    @Test
+    void classesNotMatchingTheirSignatureAreNotLoaded() throws Exception {
+        Template parsed = ReportEngine.getInstance().getParsedTemplate(TEMPLATE);
+        String sourceHash = TemplateSources.hash(TemplateSources.read(TEMPLATE));
+        Path classFile = new TemplateClassCache(cacheDir, "secret").store(parsed, sourceHash);
+        String className = className(classFile);
+
+        assertNotNull(new TemplateClassCache(cacheDir, "secret").load(className, sourceHash));
+        assertNull(new TemplateClassCache(cacheDir, "other").load(className, sourceHash));
+        assertNull(new TemplateClassCache(cacheDir).load(className, sourceHash));
+
+        byte[] bytecode = Files.readAllBytes(classFile);
+        bytecode[bytecode.length - 1]++;
+        Files.write(classFile, bytecode);
+        assertNull(new TemplateClassCache(cacheDir, "secret").load(className, sourceHash));
+    }
+
+    @Test
+    void directoriesWritableByOtherUsersAreNotUsed() throws Exception {
+        assumeTrue(cacheDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Template parsed = ReportEngine.getInstance().getParsedTemplate(TEMPLATE);
+        String sourceHash = TemplateSources.hash(TemplateSources.read(TEMPLATE));
+        Path classFile = new TemplateClassCache(cacheDir).store(parsed, sourceHash);
+        String className = className(classFile);
+
+        Files.setPosixFilePermissions(classFile.getParent(), PosixFilePermissions.fromString("rwxrwxr-x"));
+
+        assertNull(new TemplateClassCache(cacheDir).load(className, sourceHash));
+        assertThrows(IOException.class, () -> new TemplateClassCache(cacheDir).store(parsed, sourceHash));
+    }
+
+    private static String className(Path classFile) {
+        String fileName = classFile.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ".class".length());
+    }
+
+    private static String render(Template template) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("description", "Resma A4");
+        item.put("amount", new BigDecimal("45000"));
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", "001-001-0000123");
+        params.put("total", new BigDecimal("45000"));
+        params.put("items", Arrays.asList(item, new HashMap<>()));
+        params.put("paid", true);
+
+        Context context = ReportEngine.getInstance().createContext();
+        context.put("Params", params);
+        StringWriter writer = new StringWriter();
+        template.merge(context, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.jokoframework.report.pdf;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageRangesTests {
+
+    @Test
+    void documentsAreSplitAtPageBreaksKeepingTheHead() {
+        Document document = Jsoup.parse("<html lang=\"es\"><head><style>p { color: red; }</style></head>"
+                + "<body class=\"invoice\"><p id=\"a\">A</p><p id=\"b\" style=\"PAGE-BREAK-BEFORE: always\">B</p>"
+                + "<p id=\"c\" style=\"color: blue; break-after: page\">C</p><p id=\"d\">D</p></body></html>");
+
+        List<Document> ranges = PageRanges.split(document, 10);
+
+        assertEquals(3, ranges.size());
+        assertNotNull(ranges.get(0).getElementById("a"));
+        assertNotNull(ranges.get(1).getElementById("b"));
+        assertNotNull(ranges.get(1).getElementById("c"));
+        assertNotNull(ranges.get(2).getElementById("d"));
+        assertEquals("color: blue; ", ranges.get(1).getElementById("c").attr("style"));
+        for (Document range : ranges) {
+            assertEquals("es", range.child(0).attr("lang"));
+            assertEquals("invoice", range.body().className());
+            assertEquals(1, range.head().select("style").size());
+        }
+    }
+
+    @Test
+    void sectionsAreGroupedInTheRequestedRanges() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 10; i++) {
+            html.append("<div id=\"s").append(i).append("\" style=\"page-break-after: always\">Section</div>");
+        }
+        Document document = Jsoup.parse(html.append("</body></html>").toString());
+
+        List<Document> ranges = PageRanges.split(document, 2);
+
+        assertEquals(2, ranges.size());
+        assertEquals(5, ranges.get(0).body().children().size());
+        assertEquals(5, ranges.get(1).body().children().size());
+        assertNotNull(ranges.get(1).getElementById("s5"));
+    }
+
+    @Test
+    void bookmarksAreKeptInTheRangeOfTheirTarget() {
+        Document document = Jsoup.parse("<html><head><bookmarks><bookmark name=\"One\" href=\"#one\"/>"
+                + "<bookmark name=\"Two\" href=\"#two\"/></bookmarks></head><body><h1 id=\"one\">One</h1>"
+                + "<h1 id=\"two\" style=\"page-break-before: always\">Two</h1></body></html>");
+
+        List<Document> ranges = PageRanges.split(document, 2);
+
+        assertEquals("One", ranges.get(0).select("head bookmark").attr("name"));
+        assertEquals("Two", ranges.get(1).select("head bookmark").attr("name"));
+        assertEquals(1, ranges.get(1).select("bookmark").size());
+        assertTrue(ranges.get(1).body().select("bookmarks").isEmpty());
+    }
+
+    @Test
+    void documentsWithoutPageBreaksAreNotSplit() {
+        Document document = Jsoup.parse("<html><body><p>A</p><p>B</p></body></html>");
+
+        List<Document> ranges = PageRanges.split(document, 4);
+
+        assertEquals(1, ranges.size());
+        assertSame(document, ranges.get(0));
+    }
+
+    @Test
+    void pageCountersAreDetected() {
+        assertTrue(PageRanges.hasPageCounters("@page { @bottom-center { content: counter(page) ' / ' counter(pages); } }"));
+        assertTrue(PageRanges.hasPageCounters("content: counter( page )"));
+        assertFalse(PageRanges.hasPageCounters("content: counter(item)"));
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.jokoframework.report.pdf;
+
+import io.github.jokoframework.report.exception.PdfRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PdfAdmissionTests {
+
+    private static final MeterRegistry REGISTRY = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.addRegistry(REGISTRY);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.removeRegistry(REGISTRY);
+    }
+
+    @Test
+    void costIsEstimatedFromTheHtmlUpToTheMaxBytes() {
+        PdfAdmission admission = new PdfAdmission(2, 1000, 0, 0, 10);
+
+        assertEquals(80, admission.cost("<p>1</p>"));
+        assertEquals(1000, admission.cost(new String(new char[500])));
+    }
+
+    @Test
+    void pdfsAreRejectedWhenTheQueueIsFull() throws Exception {
+        PdfAdmission admission = new PdfAdmission(1, 1000, 0, 1000, 10);
+        double rejected = rejected("queue-full");
+        admission.acquire(100);
+
+        assertThrows(PdfRejectedException.class, () -> admission.acquire(100));
+        assertEquals(rejected + 1, rejected("queue-full"));
+        admission.release(100);
+        admission.acquire(100);
+        admission.release(100);
+    }
+
+    @Test
+    void pdfsAreRejectedAfterWaitingTheTimeout() throws Exception {
+        PdfAdmission admission = new PdfAdmission(4, 1000, 10, 50, 10);
+        double rejected = rejected("timeout");
+        admission.acquire(800);
+
+        assertThrows(PdfRejectedException.class, () -> admission.acquire(300));
+        assertEquals(rejected + 1, rejected("timeout"));
+        assertEquals(0, REGISTRY.get(PdfAdmission.QUEUED_GAUGE).gauge().value());
+        admission.release(800);
+        admission.acquire(300);
+        admission.release(300);
+    }
+
+    @Test
+    void pdfsBiggerThanTheMaxBytesRunAlone() throws Exception {
+        PdfAdmission admission = new PdfAdmission(4, 1000, 10, 5000, 10);
+        admission.acquire(100);
+        CompletableFuture<Void> big = CompletableFuture.runAsync(() -> {
+            try {
+                admission.acquire(1000);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse(big.isDone());
+        admission.release(100);
+        big.get(5, TimeUnit.SECONDS);
+        admission.release(1000);
+    }
+
+    private static double rejected(String reason) {
+        return REGISTRY.get(PdfAdmission.REJECTED_COUNTER).tag("reason", reason).counter().count();
+    }
+}
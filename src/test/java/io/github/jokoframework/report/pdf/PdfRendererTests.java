@@ -0,0 +1,277 @@
+package io.github.jokoframework.report.pdf;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfRendererTests {
+
+    private static final String HTML = "<html><head><title>Invoice</title></head><body><p>Total: 1.500</p></body></html>";
+    private static final String SCRIPT_HTML = "<html><head><title>Invoice</title></head><body><p>Total: 1.500</p>"
+            + "<SCRIPT>document.write('<p>Paid</p>');</SCRIPT></body></html>";
+
+    private static final MeterRegistry REGISTRY = new SimpleMeterRegistry();
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.addRegistry(REGISTRY);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.removeRegistry(REGISTRY);
+    }
+
+    @AfterEach
+    void resetRenderer() {
+        PdfRenderer.configure(settings());
+    }
+
+    @Test
+    void rendersFromMemoryWithoutTemporaryFiles() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+        int tmpFiles = countReportFiles(tmpDir);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        PdfRenderer.getInstance().render(HTML, output);
+
+        assertTrue(new String(output.toByteArray(), 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF-"));
+        assertEquals(tmpFiles, countReportFiles(tmpDir));
+    }
+
+    @Test
+    void classpathBaseUriIsResolvedToResourceUrl() {
+        PdfSettings settings = settings();
+        settings.setBaseUri("classpath:/reports/");
+
+        PdfRenderer renderer = PdfRenderer.configure(settings);
+
+        assertEquals(getClass().getClassLoader().getResource("reports/").toExternalForm(), renderer.getBaseUri());
+    }
+
+    @Test
+    void scriptsAreDetectedIgnoringCase() {
+        assertTrue(PdfRenderer.hasScripts(SCRIPT_HTML));
+        assertTrue(PdfRenderer.hasScripts("<script src=\"chart.js\"></script>"));
+        assertFalse(PdfRenderer.hasScripts(HTML));
+        assertFalse(PdfRenderer.hasScripts("<p>script</p><scr"));
+    }
+
+    @Test
+    void eventHandlersAndJavaScriptUrlsAreScripts() {
+        assertTrue(PdfRenderer.hasScripts("<body onload=\"document.title = 'Paid'\"><p>Total</p></body>"));
+        assertTrue(PdfRenderer.hasScripts("<img src=\"logo.png\"\n     ONERROR = \"init()\">"));
+        assertTrue(PdfRenderer.hasScripts("<a href=\"JavaScript:print()\">Print</a>"));
+        assertTrue(PdfRenderer.hasScripts("<iframe src= ' javascript:init()'></iframe>"));
+        assertFalse(PdfRenderer.hasScripts("<p class=\"online\">online = true, javascript: disabled</p>"));
+        assertFalse(PdfRenderer.hasScripts("<p>Total</p> onload=\"init()\""));
+    }
+
+    @Test
+    void onlyJavaScriptModesRunScripts() throws IOException {
+        PdfRenderer renderer = PdfRenderer.getInstance();
+
+        assertTrue(text(renderer, SCRIPT_HTML, PdfRenderMode.AUTO).contains("Paid"));
+        assertTrue(text(renderer, SCRIPT_HTML, PdfRenderMode.JAVASCRIPT).contains("Paid"));
+        assertFalse(text(renderer, SCRIPT_HTML, PdfRenderMode.DIRECT).contains("Paid"));
+        assertEquals(text(renderer, HTML, PdfRenderMode.JAVASCRIPT), text(renderer, HTML, PdfRenderMode.AUTO));
+    }
+
+    @Test
+    void scriptedPagesAreCopiedWithoutScriptsAndPhasesAreTimed() throws IOException {
+        String html = "<html><head><style>p { color: red; }</style></head><body><div id=\"total\"></div>"
+                + "<script>document.getElementById('total').innerHTML = '<p>Total: <b>1.500</b></p><!-- paid -->';"
+                + "</script></body></html>";
+        long javascript = count(PdfPhase.JAVASCRIPT);
+        long layout = count(PdfPhase.LAYOUT);
+
+        String text = text(PdfRenderer.getInstance(), html, PdfRenderMode.AUTO);
+
+        assertTrue(text.contains("Total: 1.500"));
+        assertFalse(text.contains("getElementById"));
+        assertEquals(javascript + 1, count(PdfPhase.JAVASCRIPT));
+        assertEquals(layout + 1, count(PdfPhase.LAYOUT));
+    }
+
+    private static long count(PdfPhase phase) {
+        return REGISTRY.get(PdfPhase.PHASE_TIMER).tag("phase", phase.name().toLowerCase(Locale.ROOT)).timer().count();
+    }
+
+    private static String text(PdfRenderer renderer, String html, PdfRenderMode mode) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        renderer.render(html, null, mode, output);
+        try (PDDocument document = PDDocument.load(output.toByteArray())) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+
+    @Test
+    void pageRangesRenderedInParallelKeepPagesAndBookmarks() throws IOException {
+        StringBuilder html = new StringBuilder("<html><head><bookmarks>");
+        for (int i = 1; i <= 8; i++) {
+            html.append("<bookmark name=\"Chapter ").append(i).append("\" href=\"#c").append(i).append("\"/>");
+        }
+        html.append("</bookmarks></head><body>");
+        for (int i = 1; i <= 8; i++) {
+            html.append("<h1 id=\"c").append(i).append(i > 1 ? "\" style=\"page-break-before: always\">" : "\">")
+                    .append("Chapter ").append(i).append("</h1>");
+        }
+        html.append("</body></html>");
+        PdfSettings settings = settings();
+        settings.setParallelism(4);
+        PdfRenderer renderer = PdfRenderer.configure(settings);
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+
+        renderer.render(html.toString(), single);
+        renderer.renderInParallel(html.toString(), parallel);
+
+        try (PDDocument expected = PDDocument.load(single.toByteArray());
+             PDDocument actual = PDDocument.load(parallel.toByteArray())) {
+            assertEquals(8, actual.getNumberOfPages());
+            assertEquals(expected.getNumberOfPages(), actual.getNumberOfPages());
+            assertEquals(new PDFTextStripper().getText(expected), new PDFTextStripper().getText(actual));
+            PDOutlineItem bookmark = actual.getDocumentCatalog().getDocumentOutline().getFirstChild();
+            for (int i = 1; i <= 8; i++) {
+                assertEquals("Chapter " + i, bookmark.getTitle());
+                bookmark = bookmark.getNextSibling();
+            }
+        }
+    }
+
+    @Test
+    void failedRangeWaitsForTheRunningOnesBeforeDiscardingTheBuffers() {
+        PdfSettings settings = settings();
+        settings.setParallelism(4);
+        PdfRenderer renderer = PdfRenderer.configure(settings);
+        List<Document> ranges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ranges.add(Jsoup.parse("<p>Range " + i + "</p>"));
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger closedWhileWriting = new AtomicInteger();
+
+        IOException error = assertThrows(IOException.class, () -> renderer.mergeRanges(ranges, false, (range, buffer) -> {
+            if (range == ranges.get(0)) {
+                throw new IOException("Range failed");
+            }
+            running.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+                buffer.write(new byte[16]);
+            } catch (IOException e) {
+                closedWhileWriting.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }, new ByteArrayOutputStream()));
+
+        assertEquals("Range failed", error.getMessage());
+        assertEquals(0, running.get());
+        assertEquals(0, closedWhileWriting.get());
+    }
+
+    @Test
+    void mergedPdfsShareTheResourcesOfEachChunk() throws IOException {
+        List<String> invoices = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            invoices.add("<html><body style=\"font-family: serif\"><h1>Factura " + i + "</h1><p>Total: 1.500</p></body></html>");
+        }
+        PdfSettings settings = settings();
+        settings.setBulkChunkSize(1);
+        ByteArrayOutputStream separate = new ByteArrayOutputStream();
+        PdfRenderer.configure(settings).renderMerged(invoices.iterator(), separate);
+        settings = settings();
+        settings.setBulkChunkSize(4);
+        ByteArrayOutputStream chunked = new ByteArrayOutputStream();
+        PdfRenderer.configure(settings).renderMerged(invoices.iterator(), chunked);
+
+        try (PDDocument document = PDDocument.load(chunked.toByteArray())) {
+            assertEquals(6, document.getNumberOfPages());
+            String text = new PDFTextStripper().getText(document);
+            assertTrue(text.indexOf("Factura 1") < text.indexOf("Factura 6"));
+        }
+        assertTrue(chunked.size() < separate.size());
+    }
+
+    @Test
+    void mergingNoDocumentsIsRejectedWithoutWriting() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PdfRenderer.getInstance().renderMerged(Collections.emptyIterator(), output));
+        assertEquals(0, output.size());
+    }
+
+    @Test
+    void largeDocumentsAreBuiltInAScratchFileAndSpillToDisk() throws IOException {
+        PdfSettings settings = settings();
+        settings.setLargeDocumentThreshold(HTML.length());
+        settings.setOutputSpillThreshold(64);
+        PdfRenderer renderer = PdfRenderer.configure(settings);
+
+        try (SpillingOutputStream pdf = renderer.renderToBuffer(HTML);
+             PDDocument document = PDDocument.load(pdf.toInputStream())) {
+            assertFalse(pdf.isInMemory());
+            assertTrue(new PDFTextStripper().getText(document).contains("Total: 1.500"));
+        }
+    }
+
+    @Test
+    void webClientsAreReusedAndBounded() throws IOException {
+        PdfSettings settings = settings();
+        settings.setWebClientPoolSize(1);
+        settings.setWebClientBorrowTimeout(50);
+        settings.setRenderMode(PdfRenderMode.JAVASCRIPT);
+        PdfRenderer renderer = PdfRenderer.configure(settings);
+        WebClientPool pool = new WebClientPool(1, 50);
+
+        assertTrue(text(renderer, SCRIPT_HTML, PdfRenderMode.JAVASCRIPT).contains("Paid"));
+        assertFalse(text(renderer, HTML, PdfRenderMode.JAVASCRIPT).contains("Paid"));
+        WebClient webClient = pool.borrow();
+        assertThrows(IOException.class, pool::borrow);
+        pool.release(webClient);
+        assertSame(webClient, pool.borrow());
+        pool.close();
+    }
+
+    private static PdfSettings settings() {
+        PdfSettings settings = new PdfSettings();
+        settings.setWebClientWarmUp(false);
+        return settings;
+    }
+
+    private static int countReportFiles(File dir) {
+        return Objects.requireNonNull(dir.listFiles((d, name) -> name.startsWith("report-") && name.endsWith(".html"))).length;
+    }
+}
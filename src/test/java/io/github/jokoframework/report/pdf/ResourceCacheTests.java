@@ -0,0 +1,148 @@
+package io.github.jokoframework.report.pdf;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResourceCacheTests {
+
+    private static final MeterRegistry REGISTRY = new SimpleMeterRegistry();
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void addRegistry() {
+        Metrics.addRegistry(REGISTRY);
+    }
+
+    @AfterAll
+    static void removeRegistry() {
+        Metrics.removeRegistry(REGISTRY);
+    }
+
+    @Test
+    void resourcesAreReadOnceAndLeastRecentlyUsedAreEvicted() throws IOException {
+        ResourceCache cache = new ResourceCache(400, 60000);
+        String logo = write("logo.png", 100);
+        String style = write("style.css", 100);
+        String banner = write("banner.png", 100);
+        String footer = write("footer.png", 100);
+        double hits = hits();
+
+        byte[] content = cache.get(logo);
+        cache.get(style);
+        cache.get(banner);
+        assertSame(content, cache.get(logo));
+        assertEquals(hits + 1, hits());
+
+        cache.get(footer);
+        cache.get(write("header.png", 100));
+        assertEquals(400, cache.size());
+        Files.delete(Paths.get(URI.create(style)));
+        assertNull(cache.get(style));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void changedFilesAreReadAgain() throws IOException {
+        ResourceCache cache = new ResourceCache(400, 60000);
+        String logo = write("logo.png", 100);
+        Path path = Paths.get(URI.create(logo));
+        cache.get(logo);
+
+        Files.write(path, new byte[]{1, 2, 3});
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get(logo));
+        assertEquals(3, cache.size());
+
+        Files.delete(path);
+        assertNull(cache.get(logo));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void httpResourcesAreRevalidatedAfterTheTimeToLive() throws IOException {
+        List<String> validators = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/logo.png", exchange -> {
+            String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            validators.add(String.valueOf(etag));
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            if ("\"v1\"".equals(etag)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                exchange.sendResponseHeaders(200, 100);
+                exchange.getResponseBody().write(new byte[100]);
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            String logo = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + server.getAddress().getPort() + "/logo.png";
+            ResourceCache fresh = new ResourceCache(400, 60000);
+            fresh.get(logo);
+            fresh.get(logo);
+            assertEquals(Collections.singletonList("null"), validators);
+
+            validators.clear();
+            ResourceCache expired = new ResourceCache(400, 0);
+            byte[] content = expired.get(logo);
+            assertSame(content, expired.get(logo));
+            assertEquals(Arrays.asList("null", "\"v1\""), validators);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void resourcesBiggerThanAQuarterOfTheLimitAreNotKept() throws IOException {
+        ResourceCache cache = new ResourceCache(400, 60000);
+
+        cache.get(write("photo.jpg", 101));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void missingFontsFailOnStartup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PdfResources(Collections.singletonList("Roboto=classpath:/fonts/missing.ttf"), 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PdfResources(Collections.singletonList("classpath:/fonts/missing.ttf"), 0, 0));
+    }
+
+    private String write(String name, int size) throws IOException {
+        return Files.write(dir.resolve(name), new byte[size]).toUri().toString();
+    }
+
+    private static double hits() {
+        return REGISTRY.get(ResourceCache.RESOURCES_COUNTER).tag("result", "hit").counter().count();
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.jokoframework.report.pdf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillingOutputStreamTests {
+
+    @Test
+    void contentIsKeptInMemoryUpToTheThreshold() throws IOException {
+        try (SpillingOutputStream buffer = new SpillingOutputStream(8)) {
+            buffer.write(new byte[]{1, 2, 3, 4, 5, 6, 7});
+            buffer.write(8);
+
+            assertTrue(buffer.isInMemory());
+            assertEquals(8, buffer.size());
+            assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, read(buffer));
+        }
+    }
+
+    @Test
+    void contentIsMovedToATemporaryFileBeyondTheThreshold() throws IOException {
+        SpillingOutputStream buffer = new SpillingOutputStream(4);
+        buffer.write(new byte[]{1, 2, 3});
+        buffer.write(new byte[]{4, 5, 6}, 1, 2);
+        buffer.write(7);
+
+        assertFalse(buffer.isInMemory());
+        assertEquals(6, buffer.size());
+        assertArrayEquals(new byte[]{1, 2, 3, 5, 6, 7}, read(buffer));
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        buffer.writeTo(copy);
+        assertArrayEquals(new byte[]{1, 2, 3, 5, 6, 7}, copy.toByteArray());
+
+        buffer.close();
+        assertThrows(IOException.class, buffer::toInputStream);
+        assertThrows(IOException.class, () -> buffer.write(8));
+    }
+
+    private static byte[] read(SpillingOutputStream buffer) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream input = buffer.toInputStream()) {
+            byte[] chunk = new byte[3];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                content.write(chunk, 0, read);
+            }
+        }
+        return content.toByteArray();
+    }
+}
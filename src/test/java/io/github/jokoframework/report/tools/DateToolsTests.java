@@ -0,0 +1,58 @@
+package io.github.jokoframework.report.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DateToolsTests {
+
+    private static final List<Locale> LOCALES = Arrays.asList(new Locale("es", "PY"), Locale.US, new Locale("pl", "PL"),
+            new Locale("ar", "EG"), new Locale("th", "TH"));
+    private static final List<String> PATTERNS = Arrays.asList("dd/MM/yyyy", "d 'de' MMMM 'de' yyyy", "MMMM yyyy",
+            "EEE dd-MMM-yy", "dd/MM/yyyy HH:mm:ss.SSS", "hh:mm a", "'[' yyyy ']'", "w/u");
+
+    @Test
+    void datesAreFormattedLikeSimpleDateFormat() {
+        Random random = new Random(42);
+        for (Locale locale : LOCALES) {
+            DateTools dateTools = new DateTools(locale);
+            for (String pattern : PATTERNS) {
+                for (int i = 0; i < 200; i++) {
+                    Date date = new Date((long) (random.nextDouble() * 4e12) - 1_000_000_000_000L);
+                    assertEquals(new SimpleDateFormat(pattern, locale).format(date), dateTools.format(date, pattern),
+                            locale + " " + pattern + " " + date.getTime());
+                }
+            }
+        }
+    }
+
+    @Test
+    void javaTimeValuesUseTheLocale() {
+        DateTools dateTools = new DateTools(new Locale("es", "PY"));
+        LocalDate date = LocalDate.of(2022, 5, 1);
+
+        assertEquals("1 de mayo de 2022", dateTools.format(date, "d 'de' MMMM 'de' yyyy"));
+        assertEquals("1 de May de 2022", dateTools.format(date, "d 'de' MMMM 'de' yyyy", Locale.US));
+        assertEquals("01/05/2022 13:45", dateTools.format(LocalDateTime.of(2022, 5, 1, 13, 45), "dd/MM/yyyy HH:mm"));
+    }
+
+    @Test
+    void datesAreFormattedAsWords() {
+        DateTools dateTools = new DateTools(new Locale("es", "PY"));
+        LocalDate date = LocalDate.of(2022, 5, 1);
+
+        assertEquals("Mayo 1, 2022", dateTools.formatAsWords(date, "{1} {0}, {2}"));
+        assertEquals("Asunción, 1 de Mayo de 2022", dateTools.formatAsWords(date, "{0}, {1} de {2} de {3}", "Asunción"));
+        assertEquals("May 1, 2022", dateTools.formatAsWords(date, "{1} {0}, {2}", Locale.US));
+        assertEquals("Mayo 1, 2022", dateTools.formatAsWords(java.sql.Date.valueOf(date), "{1} {0}, {2}"));
+    }
+}
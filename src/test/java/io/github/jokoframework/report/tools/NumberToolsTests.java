@@ -0,0 +1,90 @@
+package io.github.jokoframework.report.tools;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the output of {@link NumberTools#format(String, Object)} with a {@link DecimalFormat} built on every
+ * call, the way the tool formatted before caching
+ */
+class NumberToolsTests {
+
+    private static final List<Locale> LOCALES = Arrays.asList(new Locale("es", "PY"), new Locale("es", "ES"), Locale.US,
+            Locale.GERMANY, Locale.FRANCE, new Locale("de", "CH"), new Locale("ar", "EG"));
+    private static final List<String> PATTERNS = Arrays.asList("#,##0", "#,##0.00", "#,###", "000", "#.00", "0.0000",
+            "#,##0.##", "#,##0;(#,##0)", "$#,##0.00", "#,##0%", "0.###E0");
+
+    static Stream<Object[]> cases() {
+        List<Object[]> cases = new ArrayList<>();
+        for (Locale locale : LOCALES) {
+            for (String pattern : PATTERNS) {
+                cases.add(new Object[]{locale, pattern});
+            }
+        }
+        return cases.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("cases")
+    void formatMatchesDecimalFormat(Locale locale, String pattern) {
+        NumberTools numberTools = new NumberTools(locale);
+        DecimalFormat decimalFormat = (DecimalFormat) NumberFormat.getNumberInstance(locale);
+        decimalFormat.applyPattern(pattern);
+        for (Object value : values()) {
+            assertEquals(decimalFormat.format(value), numberTools.format(pattern, value), pattern + " " + value);
+        }
+    }
+
+    @Test
+    void zeroPatternIsUsedForZeroAmounts() {
+        NumberTools numberTools = new NumberTools(new Locale("es", "PY"));
+
+        assertEquals("-0", numberTools.format("#,##0", new BigDecimal("0.00"), "'-'"));
+        assertEquals("1.500", numberTools.format("#,##0", new BigDecimal("1500"), "'-'"));
+        assertEquals("", numberTools.format("#,##0", null));
+    }
+
+    @Test
+    void formattersFollowTheCurrentLocale() {
+        NumberTools numberTools = new NumberTools(new Locale("es", "PY"));
+        assertEquals("1.500,50", numberTools.format("#,##0.00", new BigDecimal("1500.5")));
+
+        numberTools.setLocale(Locale.US);
+
+        assertEquals("1,500.50", numberTools.format("#,##0.00", new BigDecimal("1500.5")));
+    }
+
+    private static List<Object> values() {
+        List<Object> values = new ArrayList<>();
+        for (long value : new long[]{0, 1, -1, 999, 1000, -1000, 1234567, 999999999999999999L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            values.add(value);
+            values.add(BigDecimal.valueOf(value));
+        }
+        for (String value : new String[]{"0.005", "0.015", "-0.004", "-0.005", "999.995", "-999.995", "1E+3", "2.5", "3.5",
+                "-2.5", "0.00", "123456789012345678.5", "99999999999999999.999", "-0.00000001"}) {
+            values.add(new BigDecimal(value));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            values.add(random.nextInt());
+            values.add(random.nextLong() >> random.nextInt(64));
+            values.add(new BigDecimal(BigInteger.valueOf(random.nextLong() >> random.nextInt(64)), random.nextInt(12) - 2));
+            values.add(random.nextDouble() * 1e6);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.jokoframework.report.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares {@link NumbersToSpanishWords} with the algorithm it used before the table of groups, which supported
+ * amounts up to 999.999.999.999,99
+ */
+class NumbersToSpanishWordsTests {
+
+    private static final long LEGACY_LIMIT = 1_000_000_000_000L;
+    private static final String[] UNITS = {"", "Un ", "Dos ", "Tres ", "Cuatro ", "Cinco ", "Seis ", "Siete ", "Ocho ", "Nueve "};
+
+    @Test
+    void everyAmountBelowOneMillionMatchesLegacy() {
+        for (int value = 0; value < 1_000_000; value++) {
+            String amount = value + "." + cents(value % 100);
+            assertEquals(legacy(amount), NumbersToSpanishWords.numberToWords(amount), amount);
+            assertEquals(legacy(Integer.toString(value)), NumbersToSpanishWords.numberToWords(value), Integer.toString(value));
+        }
+    }
+
+    @Test
+    void everyGroupOfMillionsMatchesLegacy() {
+        for (long group = 0; group < 1000; group++) {
+            for (long scale : new long[]{1_000_000L, 1_000_000_000L}) {
+                for (long rest : new long[]{0, 1, 1000, 1001, 999_999}) {
+                    String amount = Long.toString(group * scale + rest);
+                    assertEquals(legacy(amount), NumbersToSpanishWords.numberToWords(amount), amount);
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomAmountsMatchLegacy() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(Math.floorMod(random.nextLong(), LEGACY_LIMIT * 1000), 3);
+            assertEquals(legacy(amount.toPlainString()), NumbersToSpanishWords.numberToWords(amount), amount.toPlainString());
+        }
+    }
+
+    @Test
+    void amountsAboveLegacyLimitUseLongScale() {
+        assertEquals("Un Billon ", NumbersToSpanishWords.numberToWords(LEGACY_LIMIT));
+        assertEquals("Mil Billones ", NumbersToSpanishWords.numberToWords(1000 * LEGACY_LIMIT));
+        assertEquals("Dos Billones Cinco Millones Cien con Cincuenta Centavos ",
+                NumbersToSpanishWords.numberToWords(new BigDecimal("2000005000100.50")));
+        assertEquals("Nueve Trillones Doscientos VeintiTres Mil Trescientos Setenta y Dos Billones Treinta y Seis Mil "
+                        + "Ochocientos Cincuenta y Cuatro Millones Setecientos Setenta y Cinco Mil Ochocientos Siete ",
+                NumbersToSpanishWords.numberToWords(Long.MAX_VALUE));
+        assertEquals("Un Vigintillon ", NumbersToSpanishWords.numberToWords(new BigDecimal("1E+120")));
+        assertEquals("Dos Millones Vigintillones ", NumbersToSpanishWords.numberToWords(new BigDecimal("2E+126")));
+    }
+
+    @Test
+    void inputTypesAreEquivalent() {
+        NumberTools numberTools = new NumberTools(new Locale("es", "PY"));
+
+        assertEquals("Mil Doscientos Cincuenta con Cincuenta Centavos ", numberTools.toSpanish(new BigDecimal("1250.509")));
+        assertEquals("Mil Doscientos Cincuenta con Cincuenta Centavos ", numberTools.toSpanish(1250.5d));
+        assertEquals("Mil Doscientos Cincuenta ", numberTools.toSpanish(1250));
+        assertEquals("Mil Doscientos Cincuenta ", numberTools.toSpanish(1250L));
+        assertEquals("Menos Mil Doscientos Cincuenta ", NumbersToSpanishWords.numberToWords(-1250L));
+        assertThrows(NumberFormatException.class, () -> numberTools.toSpanish("1250"));
+    }
+
+    private static String cents(int cents) {
+        return cents < 10 ? "0" + cents : Integer.toString(cents);
+    }
+
+    /**
+     * The conversion before the table of groups, only valid for positive amounts below {@link #LEGACY_LIMIT}
+     */
+    private static String legacy(String number) {
+        BigDecimal total = new BigDecimal(number).setScale(2, RoundingMode.DOWN);
+        long integral = total.toBigInteger().longValue();
+        int units = (int) (integral % 1000);
+        int thousands = (int) ((integral / 1000) % 1000);
+        int millions = (int) ((integral / 1000000) % 1000);
+        int thousandMillions = (int) ((integral / 1000000000) % 1000);
+        String text = total.toPlainString();
+        int cents = Integer.parseInt(text.substring(text.indexOf('.') + 1));
+        if (integral == 0) {
+            return "Cero ";
+        }
+        StringBuilder result = new StringBuilder();
+        if (thousandMillions > 0) result.append(legacyGroup(thousandMillions)).append("Mil ");
+        if (millions > 0) result.append(legacyGroup(millions));
+        if (thousandMillions == 0 && millions == 1) result.append("Millon ");
+        else if (thousandMillions > 0 || millions > 0) result.append("Millones ");
+        if (thousands > 0) result.append(legacyGroup(thousands)).append("Mil ");
+        if (units > 0) result.append(legacyGroup(units));
+        if (cents > 0) result.append("con ").append(legacyGroup(cents)).append(cents >= 10 ? "Centavos " : "Centavo ");
+        String words = result.toString();
+        return words.startsWith("Un Mil") && !words.startsWith("Un Millon") ? words.substring(3) : words;
+    }
+
+    private static String legacyGroup(int n) {
+        int hundreds = n / 100;
+        int tens = (n % 100) / 10;
+        int units = n % 10;
+        StringBuilder sb = new StringBuilder();
+        if (hundreds == 1) sb.append(tens == 0 && units == 0 ? "Cien " : "Ciento ");
+        else if (hundreds == 5) sb.append("Quinientos ");
+        else if (hundreds == 7) sb.append("Setecientos ");
+        else if (hundreds == 9) sb.append("Novecientos ");
+        else if (hundreds > 0) sb.append(UNITS[hundreds].trim()).append("cientos ");
+        String[] teens = {"Diez ", "Once ", "Doce ", "Trece ", "Catorce ", "Quince "};
+        String[] tensWords = {"", "", "", "Treinta ", "Cuarenta ", "Cincuenta ", "Sesenta ", "Setenta ", "Ochenta ", "Noventa "};
+        if (tens == 1) sb.append(units <= 5 ? teens[units] : "Dieci");
+        else if (tens == 2) sb.append(units == 0 ? "Veinte " : "Veinti");
+        else sb.append(tensWords[tens]);
+        if (tens > 2 && units > 0) sb.append("y ");
+        if (tens == 0 || (tens > 2 && units > 0) || (tens == 2 && units > 0) || (tens > 0 && units > 5)) {
+            sb.append(UNITS[units]);
+        }
+        return sb.toString();
+    }
+}